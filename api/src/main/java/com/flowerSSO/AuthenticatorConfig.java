@@ -0,0 +1,174 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class that builds the Authenticator shared by all requests.
+ * <p>
+ * The authenticator is created once at startup so that state kept between
+ * requests, such as the verified-token cache, is shared by every endpoint.
+ */
+@Configuration
+public class AuthenticatorConfig {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+    private final ConfigurationManager configManager = ConfigurationManagerImpl.getInstance();
+
+    /**
+     * Creates the list of tokens revoked by administrators.
+     *
+     * @return the shared TokenRevocationList
+     */
+    @Bean
+    public TokenRevocationList tokenRevocationList() {
+        return new TokenRevocationList(configManager.getAuthRevocationMaxSize(),
+                Duration.ofSeconds(configManager.getAuthRevocationMaxTtlSeconds()));
+    }
+
+    /**
+     * Creates the Tokenizer that mints tokens at login. Its signing keys are shared with
+     * the local Authenticator and, for asymmetric algorithms, rotated in the background.
+     *
+     * @return the shared Tokenizer
+     */
+    @Bean
+    public Tokenizer tokenizer() {
+        Tokenizer tokenizer = new Tokenizer(configManager);
+        logger.info("Minting tokens with the " + tokenizer.getClaimProfile() + " claim profile.");
+        return tokenizer;
+    }
+
+    /**
+     * Creates the format incoming tokens are validated against. In local mode every
+     * token is minted here, so only the lengths of the Tokenizer's claim profile are
+     * accepted; in remote and hybrid mode tokens minted by the authentication server
+     * are accepted at any length up to the generic foreign token bound.
+     *
+     * @param tokenizer the Tokenizer that mints this server's tokens
+     * @return the shared TokenFormat
+     */
+    @Bean
+    public TokenFormat tokenFormat(Tokenizer tokenizer) {
+        if (configManager.getAuthenticationMode() == AuthenticationMode.LOCAL) {
+            return TokenFormat.of(tokenizer.getClaimProfile());
+        }
+        return TokenFormat.foreign();
+    }
+
+    /**
+     * Creates the application's Authenticator.
+     * <p>
+     * Revoked and recently rejected tokens are refused before any verification,
+     * whatever the authentication mode. Closing it on shutdown closes the whole
+     * chain, stopping the replica prober of the load balancer.
+     *
+     * @param revocations the tokens revoked by administrators
+     * @param tokenizer the Tokenizer whose tokens are verified in-process
+     * @param registry the registry the remote chain publishes its metrics to
+     * @return the Authenticator for the configured authentication mode
+     */
+    @Bean(destroyMethod = "close")
+    public Authenticator authenticator(TokenRevocationList revocations, Tokenizer tokenizer,
+            MeterRegistry registry) {
+        AuthenticationMode mode = configManager.getAuthenticationMode();
+        logger.info("Authenticator configured in " + mode + " mode.");
+        Authenticator verifier;
+        switch (mode) {
+            case LOCAL:
+                verifier = localAuthenticator(tokenizer, null);
+                break;
+            case HYBRID:
+                verifier = localAuthenticator(tokenizer, remoteAuthenticator(registry));
+                break;
+            default:
+                verifier = remoteAuthenticator(registry);
+        }
+        return new DenylistAuthenticator(verifier, revocations,
+                configManager.getAuthNegativeCacheMaxSize(),
+                Duration.ofSeconds(configManager.getAuthNegativeCacheTtlSeconds()));
+    }
+
+    /**
+     * Creates an Authenticator that verifies tokens signed by this server in-process.
+     *
+     * @param tokenizer the Tokenizer that signs this server's tokens
+     * @param fallback the authenticator for tokens signed by anyone else, or null to reject them
+     * @return the local Authenticator
+     */
+    private Authenticator localAuthenticator(Tokenizer tokenizer, Authenticator fallback) {
+        return new LocalAuthenticator(tokenizer.getKeyLocator(), tokenizer.getIssuer(), fallback);
+    }
+
+    /**
+     * Creates an Authenticator that verifies tokens with the external authentication server.
+     *
+     * @param registry the registry the chain publishes its metrics to
+     * @return the caching, request-coalescing, circuit-breaking remote Authenticator
+     */
+    private Authenticator remoteAuthenticator(MeterRegistry registry) {
+        HttpClient client = AuthenticatorImpl.newHttpClient(
+                Duration.ofMillis(configManager.getAuthServerConnectTimeoutMillis()));
+        Duration requestTimeout = Duration.ofMillis(configManager.getAuthServerRequestTimeoutMillis());
+        List<AuthenticatorImpl> replicas = new ArrayList<>();
+        for (String url : configManager.getAuthServerUrls()) {
+            replicas.add(new AuthenticatorImpl(url, client, requestTimeout));
+        }
+        Authenticator remote = replicas.get(0);
+        if (replicas.size() > 1) {
+            logger.info("Balancing authentication across " + replicas.size() + " auth server replicas.");
+            LoadBalancingAuthenticator balancer = new LoadBalancingAuthenticator(replicas,
+                    configManager.getAuthLbEjectAfterFailures(),
+                    Duration.ofMillis(configManager.getAuthLbProbeIntervalMillis()));
+            ServiceMetrics.bindLoadBalancer(registry, balancer);
+            remote = balancer;
+        }
+        CircuitBreaker breaker = new CircuitBreaker(
+                configManager.getAuthBreakerWindowSize(),
+                configManager.getAuthBreakerMinimumCalls(),
+                configManager.getAuthBreakerFailureRatePercent(),
+                Duration.ofMillis(configManager.getAuthBreakerSlowCallMillis()),
+                configManager.getAuthBreakerSlowCallRatePercent(),
+                Duration.ofMillis(configManager.getAuthBreakerOpenMillis()),
+                configManager.getAuthBreakerHalfOpenCalls());
+        ResilientAuthenticator resilient = new ResilientAuthenticator(remote, breaker,
+                Duration.ofMillis(configManager.getAuthResilienceDeadlineMillis()),
+                Duration.ofMillis(configManager.getAuthResilienceHedgeDelayMillis()));
+        ServiceMetrics.bindResilience(registry, resilient, breaker);
+        CoalescingAuthenticator coalescer = new CoalescingAuthenticator(resilient);
+        ServiceMetrics.bindCoalescer(registry, coalescer);
+        CachingAuthenticator cache = new CachingAuthenticator(coalescer,
+                configManager.getAuthCacheMaxSize(),
+                Duration.ofSeconds(configManager.getAuthCacheTtlSeconds()));
+        ServiceMetrics.bindCache(registry, cache);
+        return cache;
+    }
+}
@@ -21,6 +21,7 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -225,6 +226,28 @@ public class EndpointExceptionHandler {
 
 
 
+    /*
+     * =======================================================================================
+     *      413 Errors (PAYLOAD TOO LARGE)
+     * =======================================================================================
+     */
+
+    /**
+     * Exception handler for when a batch request contains too many items.
+     * 
+     * @param e A BatchTooLargeException.
+     * @return  A JSON-formatted HTTP response with a 413 error code and message.
+     */
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<String> handleBatchTooLargeException(BatchTooLargeException e) {
+        logger.error("Returning HTTP response code 413: Batch exceeds the maximum number of items allowed per request.");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body("{\"errorMsg\": \"Batch exceeds the maximum number of items allowed per request.\"}");
+    }
+
+
+
     /*
      * =======================================================================================
      *      415 Errors (UNSUPPORTED MEDIA TYPE)
@@ -246,6 +269,30 @@ public class EndpointExceptionHandler {
     }
 
 
+
+    /*
+     * =======================================================================================
+     *      429 Errors (TOO MANY REQUESTS)
+     * =======================================================================================
+     */
+
+    /**
+     * Exception handler for when a client address or email has made too many login requests.
+     * 
+     * @param e A LoginThrottledException.
+     * @return  A JSON-formatted HTTP response with a 429 error code, a Retry-After header and message.
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<String> handleLoginThrottledException(LoginThrottledException e) {
+        // Logged at debug: a credential-stuffing flood would otherwise flood the log too
+        securityLogger.debug("Returning HTTP response code 429: Too many login attempts.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                             .body("{\"errorMsg\": \"Too many login attempts. Please try again later.\"}");
+    }
+
+
     
     /*
      * =======================================================================================
@@ -281,4 +328,27 @@ public class EndpointExceptionHandler {
                              .body("{\"errorMsg\": \"Fatal internal error occurred.\"}");
     }
 
+
+
+    /*
+     * =======================================================================================
+     *      503 Errors (SERVICE UNAVAILABLE)
+     * =======================================================================================
+     */
+
+    /**
+     * Exception handler for when too many password hashes are already waiting.
+     * 
+     * @param e A PasswordHasherSaturatedException.
+     * @return  A JSON-formatted HTTP response with a 503 error code, a Retry-After header and message.
+     */
+    @ExceptionHandler(PasswordHasherSaturatedException.class)
+    public ResponseEntity<String> handlePasswordHasherSaturatedException(PasswordHasherSaturatedException e) {
+        logger.warn("Returning HTTP response code 503: Server is busy processing logins.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                             .body("{\"errorMsg\": \"Server is busy processing logins. Please try again later.\"}");
+    }
+
 }
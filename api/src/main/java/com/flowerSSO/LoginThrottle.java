@@ -0,0 +1,99 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles login and password reset requests per client address and per email, so
+ * credential-stuffing traffic is turned away before it reaches the database or costs
+ * a password hash.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
+
+    private final RateLimiter byAddress;
+
+    private final RateLimiter byEmail;
+
+    /**
+     * Constructs the throttle with the limits in the application configuration.
+     */
+    public LoginThrottle() {
+        this(ConfigurationManagerImpl.getInstance());
+    }
+
+    /**
+     * Constructs the throttle with the limits in the given configuration.
+     *
+     * @param config the application configuration
+     */
+    public LoginThrottle(ConfigurationManager config) {
+        this.byAddress = new RateLimiter(config.getLoginThrottleIpLimit(),
+                Duration.ofSeconds(config.getLoginThrottleIpPeriodSeconds()), config.getLoginThrottleMaxKeys());
+        this.byEmail = new RateLimiter(config.getLoginThrottleEmailLimit(),
+                Duration.ofSeconds(config.getLoginThrottleEmailPeriodSeconds()), config.getLoginThrottleMaxKeys());
+    }
+
+    /**
+     * Counts a request against the client address it came from.
+     *
+     * @param address the client address
+     * @throws LoginThrottledException if the address has no requests left
+     */
+    public void checkAddress(String address) {
+        long waitNanos = byAddress.tryAcquire(address);
+        if (waitNanos > 0) {
+            securityLogger.debug("Throttled login requests from address: {}", address);
+            throw new LoginThrottledException("Too many login requests from this address", toSeconds(waitNanos));
+        }
+    }
+
+    /**
+     * Counts a request against the email it names. Emails are compared ignoring case
+     * and surrounding whitespace.
+     *
+     * @param email the email
+     * @throws LoginThrottledException if the email has no requests left
+     */
+    public void checkEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        long waitNanos = byEmail.tryAcquire(normalized);
+        if (waitNanos > 0) {
+            securityLogger.debug("Throttled login requests for email: {}", normalized);
+            throw new LoginThrottledException("Too many login requests for this email", toSeconds(waitNanos));
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
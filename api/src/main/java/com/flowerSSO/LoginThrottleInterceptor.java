@@ -0,0 +1,71 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor that throttles login and password reset requests per client address.
+ * <p>
+ * It applies to the endpoint methods marked {@link LoginThrottled}, so it sees exactly
+ * the requests Spring routes to them, whatever the spelling of their path. It runs
+ * before the request body is read, so throttled requests cost no JSON parsing,
+ * database query or password hash. The per-email limit is applied by the endpoint
+ * once the body has been read.
+ */
+@Component
+public class LoginThrottleInterceptor implements HandlerInterceptor {
+
+    private final LoginThrottle throttle;
+
+    /**
+     * Constructs the interceptor.
+     *
+     * @param throttle the shared login throttle
+     */
+    public LoginThrottleInterceptor(LoginThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * Counts a request to a throttled endpoint method against its client address;
+     * other requests pass straight through.
+     *
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @param handler the handler the request was routed to
+     * @return true to continue handling the request
+     * @throws LoginThrottledException if the client address has no requests left,
+     *         answered with 429 (Too Many Requests) by the EndpointExceptionHandler
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(LoginThrottled.class)) {
+            throttle.checkAddress(request.getRemoteAddr());
+        }
+        return true;
+    }
+}
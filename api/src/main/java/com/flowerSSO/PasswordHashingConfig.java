@@ -0,0 +1,85 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class that builds the password hasher shared by all requests.
+ * <p>
+ * Hashes run on a dedicated, bounded pool so that a burst of logins cannot take
+ * every request thread and core away from cheap endpoints.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+    private final ConfigurationManager configManager = ConfigurationManagerImpl.getInstance();
+
+    /**
+     * Creates the bounded password hasher and makes it the one used by login
+     * credentials received in requests. The configured algorithm is calibrated to
+     * the target hash time on this machine first. Its threads are stopped on shutdown.
+     *
+     * @param registry the registry the hasher publishes its metrics to
+     * @return the shared BoundedPasswordHasher
+     */
+    @Bean
+    public BoundedPasswordHasher passwordHasher(MeterRegistry registry) {
+        Duration target = Duration.ofMillis(configManager.getPasswordHashingTargetMillis());
+        PasswordHashAlgorithm algorithm = switch (configManager.getPasswordHashingAlgorithm()) {
+            case BCRYPT -> PasswordHashCalibrator.calibrateBCrypt(target);
+            case ARGON2ID -> PasswordHashCalibrator.calibrateArgon2id(target);
+            case SCRYPT -> PasswordHashCalibrator.calibrateScrypt(target);
+        };
+        BoundedPasswordHasher hasher = new BoundedPasswordHasher(new PasswordHasherImpl(algorithm),
+                configManager.getPasswordHashingThreads(),
+                configManager.getPasswordHashingQueueSize());
+        ServiceMetrics.bindPasswordHasher(registry, hasher);
+        LoginCredentials.setSharedPasswordHasher(hasher);
+        logger.info("Hashing passwords with {} on a bounded pool with a queue of {} requests.",
+                algorithm.describe(), configManager.getPasswordHashingQueueSize());
+        return hasher;
+    }
+
+    /**
+     * Creates the queue that rewrites outdated password hashes after logins, hashing on
+     * the shared pool so rewrites never take capacity beyond it.
+     *
+     * @param passwordHasher the shared password hasher
+     * @param authenticator the authenticator the DAO is built with
+     * @return the PasswordRehashQueue used by CredentialsDAO
+     */
+    @Bean
+    public PasswordRehashQueue passwordRehashQueue(BoundedPasswordHasher passwordHasher, Authenticator authenticator) {
+        CredentialsDAO dao = new CredentialsDAO(authenticator);
+        PasswordRehashQueue queue = new PasswordRehashQueue(passwordHasher, dao::replacePasswordHash,
+                configManager.getPasswordRehashQueueSize());
+        CredentialsDAO.setRehashQueue(queue);
+        return queue;
+    }
+}
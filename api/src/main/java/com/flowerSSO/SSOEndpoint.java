@@ -22,7 +22,11 @@ package com.flowerSSO;
 */
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -39,8 +43,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 
@@ -55,61 +60,181 @@ import jakarta.validation.constraints.Email;
 @RequestMapping("SSO")
 public class SSOEndpoint {
 
-    private String authServerUrl;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getEventLogger();
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
     private final ConfigurationManager configManager = ConfigurationManagerImpl.getInstance();
+    private final Authenticator authenticator;
+    private final TokenRevocationList revocations;
+    private final Tokenizer tokenizer;
+    private final TokenFormat tokenFormat;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenDAO refreshTokens;
+    private final int maxBatchSize;
+    private final CacheControl jwksCacheControl;
 
-    @PostConstruct
-    public void init() {
-        authServerUrl = String.format("%s:%d/%s",
-                configManager.getAuthServerHost(),
-                configManager.getAuthServerPort(),
-                configManager.getAuthServerSubdomain());
+    /**
+     * Constructs the endpoint with the application's shared Authenticator.
+     * 
+     * @param authenticator the authenticator used to verify user tokens
+     * @param revocations the list of tokens revoked by administrators
+     * @param tokenizer the tokenizer that mints tokens at login
+     * @param tokenFormat the format incoming tokens are validated against
+     * @param loginThrottle the per-email limit on login and password reset requests
+     */
+    public SSOEndpoint(Authenticator authenticator, TokenRevocationList revocations, Tokenizer tokenizer,
+            TokenFormat tokenFormat, LoginThrottle loginThrottle) {
+        this.authenticator = authenticator;
+        this.revocations = revocations;
+        this.tokenizer = tokenizer;
+        this.tokenFormat = tokenFormat;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokens = new RefreshTokenDAO(configManager);
+        this.maxBatchSize = configManager.getVerificationBatchMaxSize();
+        // A new signing key is published one overlap window before it signs, so relying
+        // parties caching the key set for half of it always see the key in time
+        Duration overlap = Duration.ofMinutes(configManager.getTokenSigningOverlapMinutes());
+        this.jwksCacheControl = CacheControl.maxAge(overlap.dividedBy(2)).cachePublic();
     }
 
-    @GetMapping("verification")
-    public ResponseEntity<String> verifyCredentials(@Valid @RequestHeader("Bearer") String tokenStr) {
-        Token token = new Token();
-        token.setToken(tokenStr);
-        Authenticator auth = new AuthenticatorImpl(authServerUrl);
-        Credentials userCredentials = auth.authenticate(token);
+    /**
+     * Publishes the public keys tokens are signed with, as a JSON Web Key Set, so that
+     * relying parties can verify tokens themselves. The key set is empty when tokens
+     * are signed with a shared HMAC secret.
+     * 
+     * @return the JWKS document
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
         return ResponseEntity.ok()
                              .contentType(MediaType.APPLICATION_JSON)
-                             .body(String.format("{\"firstName\": \"%s\", \"lastName\": \"%s\"}", 
-                                     userCredentials.getFirstName(),
-                                     userCredentials.getLastName()));
+                             .cacheControl(jwksCacheControl)
+                             .body(tokenizer.getJwksJson());
+    }
+
+    /**
+     * Verifies a user's token. The request thread is released while the token is
+     * being verified and the response is written once verification completes.
+     * 
+     * @param tokenStr the user's JSON Web Token (JWT)
+     * @return a future completed with the user's name as JSON
+     */
+    @GetMapping("verification")
+    public CompletableFuture<ResponseEntity<String>> verifyCredentials(@Valid @RequestHeader("Bearer") String tokenStr) {
+        Token token = new Token(tokenStr, tokenFormat);
+        return authenticator.authenticateAsync(token)
+                            .thenApply(userCredentials -> ResponseEntity.ok()
+                                     .contentType(MediaType.APPLICATION_JSON)
+                                     .body(String.format("{\"firstName\": \"%s\", \"lastName\": \"%s\"}", 
+                                             userCredentials.getFirstName(),
+                                             userCredentials.getLastName())));
+    }
+
+    /**
+     * Verifies a batch of tokens in a single request. Distinct tokens are verified in
+     * parallel and repeated tokens only once. The response holds one result per token,
+     * in request order.
+     * 
+     * @param tokenStrs the JSON Web Tokens (JWTs) to verify
+     * @return a future completed with a JSON array of per-token results
+     */
+    @PostMapping("/verification/batch")
+    public CompletableFuture<ResponseEntity<String>> verifyCredentialsBatch(@RequestBody List<String> tokenStrs) {
+        if (tokenStrs.size() > maxBatchSize) {
+            String errorMsg = String.format("Batch of %d tokens exceeds the maximum of %d.", tokenStrs.size(), maxBatchSize);
+            logger.error(errorMsg);
+            throw new BatchTooLargeException(errorMsg);
+        }
+        logger.info(String.format("Received POST request (batch verification) for %d tokens.", tokenStrs.size()));
+        List<Token> tokens = new ArrayList<>(tokenStrs.size());
+        boolean[] wellFormed = new boolean[tokenStrs.size()];
+        for (int i = 0; i < tokenStrs.size(); i++) {
+            try {
+                Token token = new Token(tokenStrs.get(i), tokenFormat);
+                tokens.add(token);
+                wellFormed[i] = true;
+            } catch (IllegalArgumentException e) {
+                wellFormed[i] = false;
+            }
+        }
+        List<CompletableFuture<Credentials>> verifications = authenticator.authenticateAllAsync(tokens);
+        return CompletableFuture.allOf(verifications.toArray(new CompletableFuture<?>[0]))
+                                .handle((ignored, error) -> {
+                                    ArrayNode results = MAPPER.createArrayNode();
+                                    int next = 0;
+                                    for (boolean tokenWellFormed : wellFormed) {
+                                        ObjectNode result = results.addObject();
+                                        if (!tokenWellFormed) {
+                                            result.put("valid", false);
+                                            result.put("errorMsg", "Invalid token.");
+                                            continue;
+                                        }
+                                        CompletableFuture<Credentials> verification = verifications.get(next++);
+                                        if (verification.isCompletedExceptionally()) {
+                                            result.put("valid", false);
+                                            result.put("errorMsg", verification.exceptionNow() instanceof AuthenticationServiceException
+                                                    ? "Unable to contact authentication services."
+                                                    : "Unable to authenticate user.");
+                                        } else {
+                                            Credentials userCredentials = verification.resultNow();
+                                            result.put("valid", true);
+                                            result.put("firstName", userCredentials.getFirstName());
+                                            result.put("lastName", userCredentials.getLastName());
+                                        }
+                                    }
+                                    return ResponseEntity.ok()
+                                                         .contentType(MediaType.APPLICATION_JSON)
+                                                         .body(results.toString());
+                                });
     }
 
     @PostMapping("/profile")
-    public ResponseEntity<String> profile(@Valid @RequestHeader("Bearer") String tokenStr) {
-        Token token = new Token();
-        token.setToken(tokenStr);
-        Authenticator auth = new AuthenticatorImpl(authServerUrl);
-        Credentials userCredentials = auth.authenticate(token);
+    public CompletableFuture<ResponseEntity<String>> profile(@Valid @RequestHeader("Bearer") String tokenStr) {
+        Token token = new Token(tokenStr, tokenFormat);
         // Use userCredentials to fetch profile information from db
         // Send profile information as JSON response
-        return ResponseEntity.ok()
-                             .contentType(MediaType.APPLICATION_JSON)
-                             .body(String.format("{\"firstName\": \"%s\", \"lastName\": \"%s\"}", 
-                                     userCredentials.getFirstName(),
-                                     userCredentials.getLastName()));
+        return authenticator.authenticateAsync(token)
+                            .thenApply(userCredentials -> ResponseEntity.ok()
+                                     .contentType(MediaType.APPLICATION_JSON)
+                                     .body(String.format("{\"firstName\": \"%s\", \"lastName\": \"%s\"}", 
+                                             userCredentials.getFirstName(),
+                                             userCredentials.getLastName())));
     }
 
     @PostMapping("/login")
+    @LoginThrottled
     public ResponseEntity<String> login(@Valid @RequestBody LoginCredentials userLogin) {
         logger.info(String.format("Receieved POST request (login) from user: %s", userLogin.getEmail()));
-        CredentialsDAO dao = new CredentialsDAO();
-        System.out.println("DAO created");
+        loginThrottle.checkEmail(userLogin.getEmail());
+        CredentialsDAO dao = new CredentialsDAO(authenticator);
         Credentials userCredentials = dao.getCredentialsFromLogin(userLogin);
-        System.out.println("User credentials retrieved");
-        System.out.println(userLogin.getEmail());
-        System.out.println(userLogin.getPassword());
-        String jwt = Tokenizer.tokenize(userCredentials);
-        System.out.println("Token created");
+        if (userCredentials == null) {
+            throw new AuthenticationException("Invalid email or password");
+        }
+        String jwt = tokenizer.tokenize(userCredentials);
+        String refreshToken = refreshTokens.issue(userCredentials.getId());
         return ResponseEntity.ok()
                              .contentType(MediaType.APPLICATION_JSON)
                              .header("Bearer", jwt)
-                             .body("{\"msg\": \"Login successful.\"}");
+                             .body(String.format("{\"msg\": \"Login successful.\", \"refreshToken\": \"%s\"}", refreshToken));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token, without the user logging in
+     * again. The refresh token is used up and replaced by the one in the response;
+     * presenting a used refresh token again logs the user out everywhere.
+     * 
+     * @param refreshToken the refresh token handed out at login or by the last refresh
+     * @return the new access token in the Bearer header and the new refresh token as JSON
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<String> refresh(@RequestHeader("Refresh") String refreshToken) {
+        RefreshResult result = refreshTokens.refresh(refreshToken);
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .header("Bearer", tokenizer.tokenize(result.credentials()))
+                             .body(String.format("{\"refreshToken\": \"%s\"}", result.refreshToken()));
     }
 
     @PostMapping("/signup")
@@ -120,21 +245,49 @@ public class SSOEndpoint {
 
     @PutMapping("/update")
     public ResponseEntity<String> update(@Valid @RequestHeader("Bearer") String tokenStr, @Valid @RequestBody Credentials newUserCredentials) {
-        Token token = new Token();
-        token.setToken(tokenStr);
-        Authenticator auth = new AuthenticatorImpl(authServerUrl);
-        Credentials userCredentials = auth.authenticate(token);
+        Token token = new Token(tokenStr, tokenFormat);
+        Credentials userCredentials = authenticator.authenticate(token);
         return ResponseEntity.ok()
                              .contentType(MediaType.APPLICATION_JSON)
                              .body("{\"firstName\": \"%s\", \"lastName\": \"%s\"}");
     }
 
+    /**
+     * Revokes a token so that it is refused from now until it expires. Admin only.
+     * 
+     * @param tokenStr the administrator's JSON Web Token (JWT)
+     * @param request the token to revoke
+     * @return a JSON confirmation message
+     */
+    @PostMapping("/admin/revoke")
+    public ResponseEntity<String> revoke(@Valid @RequestHeader("Bearer") String tokenStr, @RequestBody RevocationRequest request) {
+        Token adminToken = new Token(tokenStr, tokenFormat);
+        CredentialsDAO dao = new CredentialsDAO(authenticator);
+        if (!dao.verifyIsAdmin(adminToken)) {
+            securityLogger.warn("Unauthorized attempt to revoke a token");
+            throw new AuthorizationException("Only admin can revoke tokens");
+        }
+        revocations.revoke(new Token(request.token(), tokenFormat));
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body("{\"msg\": \"Token revoked.\"}");
+    }
+
     @PutMapping("/forgot-password")
+    @LoginThrottled
     public ResponseEntity<String> forgotPassword(@Valid @RequestBody LoginCredentials userLogin) {
         String userEmail = userLogin.getEmail();
+        loginThrottle.checkEmail(userEmail);
         userLogin.setTempPassword();
         //DAO setTempPasssword(userLogin)
         EmailService.sendTempPasswordEmail(userEmail, userLogin.getTempPassword());
         return ResponseEntity.ok("Password reset successfully");
     }
-}
\ No newline at end of file
+
+    /**
+     * The body of a revocation request.
+     * 
+     * @param token the token to revoke
+     */
+    public record RevocationRequest(String token) {}
+}
@@ -0,0 +1,177 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Publishes the counters kept by the authenticator chain and the password hasher
+ * to the application's MeterRegistry, where they are served by the actuator metrics endpoint.
+ * <p>
+ * Monotonic counts are registered as counters and point-in-time values as gauges.
+ * Meters only hold weak references to their components, which are kept alive by
+ * the beans that own them.
+ */
+final class ServiceMetrics {
+
+    private ServiceMetrics() {
+    }
+
+    /**
+     * Registers the hit, miss and eviction counts and the size of a verified-token cache.
+     *
+     * @param registry the registry to publish to
+     * @param cache the cache of verified tokens
+     */
+    static void bindCache(MeterRegistry registry, CachingAuthenticator cache) {
+        FunctionCounter.builder("flowersso.auth.cache.hits", cache, CachingAuthenticator::getHitCount)
+                .description("Tokens answered from the verified-token cache")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.cache.misses", cache, CachingAuthenticator::getMissCount)
+                .description("Tokens not found in the verified-token cache")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.cache.evictions", cache, CachingAuthenticator::getEvictionCount)
+                .description("Verified tokens evicted for size or expiry")
+                .register(registry);
+        Gauge.builder("flowersso.auth.cache.size", cache, CachingAuthenticator::getSize)
+                .description("Verified tokens currently cached")
+                .register(registry);
+    }
+
+    /**
+     * Registers the request, delegate-call and coalesced counts of a request-coalescing
+     * authenticator, with its in-flight count, fan-in and de-duplication ratio.
+     *
+     * @param registry the registry to publish to
+     * @param coalescer the request-coalescing authenticator
+     */
+    static void bindCoalescer(MeterRegistry registry, CoalescingAuthenticator coalescer) {
+        FunctionCounter.builder("flowersso.auth.coalescing.requests", coalescer,
+                        CoalescingAuthenticator::getRequestCount)
+                .description("Verifications requested of the coalescing authenticator")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.coalescing.flights", coalescer,
+                        CoalescingAuthenticator::getFlightCount)
+                .description("Verifications passed on to the auth server")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.coalescing.coalesced", coalescer,
+                        CoalescingAuthenticator::getCoalescedCount)
+                .description("Requests that joined a verification already in flight")
+                .register(registry);
+        Gauge.builder("flowersso.auth.coalescing.in.flight", coalescer, CoalescingAuthenticator::getInFlightCount)
+                .description("Verifications currently in flight")
+                .register(registry);
+        Gauge.builder("flowersso.auth.coalescing.fan.in", coalescer, CoalescingAuthenticator::getFanIn)
+                .description("Average requests served by each verification")
+                .register(registry);
+        Gauge.builder("flowersso.auth.coalescing.dedup.ratio", coalescer, CoalescingAuthenticator::getDedupRatio)
+                .description("Fraction of requests that did not need their own verification")
+                .register(registry);
+    }
+
+    /**
+     * Registers the state, trip and rejection counts and call rates of the circuit breaker
+     * guarding the auth server, with the timeout and hedge counts of the authenticator it guards.
+     * The state is published as one gauge per state, tagged with its name, that reads 1 while
+     * the breaker is in that state.
+     *
+     * @param registry the registry to publish to
+     * @param resilient the deadline-enforcing, hedging authenticator
+     * @param breaker the circuit breaker used by the authenticator
+     */
+    static void bindResilience(MeterRegistry registry, ResilientAuthenticator resilient, CircuitBreaker breaker) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("flowersso.auth.breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                    .description("1 while the auth server circuit breaker is in the tagged state")
+                    .tag("state", state.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("flowersso.auth.breaker.trips", breaker, CircuitBreaker::getTripCount)
+                .description("Times the auth server circuit breaker has opened")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.breaker.rejected", breaker, CircuitBreaker::getRejectedCount)
+                .description("Verifications failed fast while the circuit breaker was open")
+                .register(registry);
+        Gauge.builder("flowersso.auth.breaker.failure.rate", breaker, CircuitBreaker::getFailureRatePercent)
+                .description("Failure rate over the breaker window, in percent")
+                .register(registry);
+        Gauge.builder("flowersso.auth.breaker.slow.call.rate", breaker, CircuitBreaker::getSlowCallRatePercent)
+                .description("Slow-call rate over the breaker window, in percent")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.timeouts", resilient, ResilientAuthenticator::getTimeoutCount)
+                .description("Verifications that overran the deadline")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.hedges", resilient, ResilientAuthenticator::getHedgeCount)
+                .description("Hedged requests sent to the auth server")
+                .register(registry);
+    }
+
+    /**
+     * Registers the replica counts and ejection count of the auth server load balancer.
+     *
+     * @param registry the registry to publish to
+     * @param balancer the load-balancing authenticator
+     */
+    static void bindLoadBalancer(MeterRegistry registry, LoadBalancingAuthenticator balancer) {
+        Gauge.builder("flowersso.auth.lb.replicas", balancer, LoadBalancingAuthenticator::getEndpointCount)
+                .description("Auth server replicas")
+                .register(registry);
+        Gauge.builder("flowersso.auth.lb.replicas.healthy", balancer, LoadBalancingAuthenticator::getHealthyEndpointCount)
+                .description("Auth server replicas currently receiving traffic")
+                .register(registry);
+        FunctionCounter.builder("flowersso.auth.lb.ejections", balancer, LoadBalancingAuthenticator::getEjectionCount)
+                .description("Times an auth server replica has been ejected")
+                .register(registry);
+    }
+
+    /**
+     * Registers the queue depth, completed and rejected counts and mean hash and queue
+     * wait times of the bounded password hasher.
+     *
+     * @param registry the registry to publish to
+     * @param hasher the bounded password hasher
+     */
+    static void bindPasswordHasher(MeterRegistry registry, BoundedPasswordHasher hasher) {
+        Gauge.builder("flowersso.password.hashing.queue.depth", hasher, BoundedPasswordHasher::getQueueDepth)
+                .description("Password hashes waiting for a free hashing thread")
+                .register(registry);
+        FunctionCounter.builder("flowersso.password.hashing.completed", hasher, BoundedPasswordHasher::getCompletedCount)
+                .description("Password hashes completed")
+                .register(registry);
+        FunctionCounter.builder("flowersso.password.hashing.rejected", hasher, BoundedPasswordHasher::getRejectedCount)
+                .description("Password hashes refused because the queue was full")
+                .register(registry);
+        TimeGauge.builder("flowersso.password.hashing.mean.hash", hasher, TimeUnit.NANOSECONDS,
+                        BoundedPasswordHasher::getMeanHashNanos)
+                .description("Mean time spent computing one password hash")
+                .register(registry);
+        TimeGauge.builder("flowersso.password.hashing.mean.wait", hasher, TimeUnit.NANOSECONDS,
+                        BoundedPasswordHasher::getMeanWaitNanos)
+                .description("Mean time a password hash waits for a hashing thread")
+                .register(registry);
+    }
+}
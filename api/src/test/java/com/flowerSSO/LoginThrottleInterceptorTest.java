@@ -0,0 +1,116 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+public class LoginThrottleInterceptorTest {
+
+    private static final String LOGIN_BODY = "{\"email\": \"user@example.com\", \"password\": \"Password1!\"}";
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setup() {
+        LoginThrottle throttle = new LoginThrottle(LoginThrottleTest.config(1, 100));
+        mvc = MockMvcBuilders.standaloneSetup(new StubEndpoint())
+                             .addInterceptors(new LoginThrottleInterceptor(throttle))
+                             .setControllerAdvice(new EndpointExceptionHandler())
+                             .build();
+        // Use up the only request the client address is allowed
+        throttle.checkAddress("127.0.0.1");
+    }
+
+    @Test
+    void loginIsThrottled() throws Exception {
+        mvc.perform(post("/SSO/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+           .andExpect(status().isTooManyRequests())
+           .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void loginWithPathParameterIsThrottled() throws Exception {
+        mvc.perform(post(URI.create("/SSO/login;x=1")).contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+           .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void loginWithEncodedPathIsThrottled() throws Exception {
+        mvc.perform(post(URI.create("/SSO/%6cogin")).contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+           .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void forgotPasswordIsThrottled() throws Exception {
+        mvc.perform(put(URI.create("/SSO/forgot-password;jsessionid=abc")).contentType(MediaType.APPLICATION_JSON)
+                                                                          .content(LOGIN_BODY))
+           .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void otherEndpointsAreNotThrottled() throws Exception {
+        mvc.perform(get("/SSO/.well-known/jwks.json"))
+           .andExpect(status().isOk());
+    }
+
+    /**
+     * Stands in for SSOEndpoint, mapping the same paths and marking the same methods.
+     */
+    @RestController
+    @RequestMapping("SSO")
+    static class StubEndpoint {
+
+        @PostMapping("/login")
+        @LoginThrottled
+        public String login() {
+            return "{}";
+        }
+
+        @PutMapping("/forgot-password")
+        @LoginThrottled
+        public String forgotPassword() {
+            return "{}";
+        }
+
+        @GetMapping("/.well-known/jwks.json")
+        public String jwks() {
+            return "{\"keys\": []}";
+        }
+    }
+}
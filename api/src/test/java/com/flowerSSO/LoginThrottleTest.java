@@ -0,0 +1,84 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoginThrottleTest {
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setup() {
+        throttle = new LoginThrottle(config(2, 1));
+    }
+
+    @Test
+    void addressIsThrottledAfterItsLimit() {
+        throttle.checkAddress("10.0.0.1");
+        throttle.checkAddress("10.0.0.1");
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttle.checkAddress("10.0.0.1"));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+    }
+
+    @Test
+    void addressesAreCountedSeparately() {
+        throttle.checkAddress("10.0.0.1");
+        throttle.checkAddress("10.0.0.1");
+
+        assertDoesNotThrow(() -> throttle.checkAddress("10.0.0.2"));
+    }
+
+    @Test
+    void emailIsThrottledIgnoringCaseAndWhitespace() {
+        throttle.checkEmail("User@Example.com");
+
+        assertThrows(LoginThrottledException.class, () -> throttle.checkEmail("  user@example.COM "));
+    }
+
+    @Test
+    void nullEmailIsNotCounted() {
+        throttle.checkEmail(null);
+        throttle.checkEmail(null);
+
+        assertDoesNotThrow(() -> throttle.checkEmail("user@example.com"));
+    }
+
+    static ConfigurationManager config(int addressLimit, int emailLimit) {
+        ConfigurationManager config = mock(ConfigurationManager.class);
+        when(config.getLoginThrottleIpLimit()).thenReturn(addressLimit);
+        when(config.getLoginThrottleIpPeriodSeconds()).thenReturn(60);
+        when(config.getLoginThrottleEmailLimit()).thenReturn(emailLimit);
+        when(config.getLoginThrottleEmailPeriodSeconds()).thenReturn(300);
+        when(config.getLoginThrottleMaxKeys()).thenReturn(100);
+        return config;
+    }
+}
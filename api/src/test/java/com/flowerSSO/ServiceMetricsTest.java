@@ -0,0 +1,146 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ServiceMetricsTest {
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void cacheCountsArePublished() {
+        Authenticator delegate = mock(Authenticator.class);
+        when(delegate.authenticate(any())).thenAnswer(invocation -> testCredentials());
+        CachingAuthenticator cache = new CachingAuthenticator(delegate, 100, Duration.ofMinutes(5), Runnable::run);
+        ServiceMetrics.bindCache(registry, cache);
+
+        Token token = tokenExpiringIn(3600);
+        cache.authenticate(token);
+        cache.authenticate(token);
+
+        assertEquals(1.0, registry.get("flowersso.auth.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("flowersso.auth.cache.misses").functionCounter().count());
+        assertEquals(0.0, registry.get("flowersso.auth.cache.evictions").functionCounter().count());
+        assertEquals(1.0, registry.get("flowersso.auth.cache.size").gauge().value());
+    }
+
+    @Test
+    void coalescingCountsArePublished() {
+        Authenticator delegate = mock(Authenticator.class);
+        CompletableFuture<Credentials> pending = new CompletableFuture<>();
+        when(delegate.authenticateAsync(any())).thenReturn(pending);
+        CoalescingAuthenticator coalescer = new CoalescingAuthenticator(delegate);
+        ServiceMetrics.bindCoalescer(registry, coalescer);
+
+        Token token = tokenExpiringIn(3600);
+        coalescer.authenticateAsync(token);
+        coalescer.authenticateAsync(token);
+
+        assertEquals(2.0, registry.get("flowersso.auth.coalescing.requests").functionCounter().count());
+        assertEquals(1.0, registry.get("flowersso.auth.coalescing.flights").functionCounter().count());
+        assertEquals(1.0, registry.get("flowersso.auth.coalescing.coalesced").functionCounter().count());
+        assertEquals(1.0, registry.get("flowersso.auth.coalescing.in.flight").gauge().value());
+        assertEquals(2.0, registry.get("flowersso.auth.coalescing.fan.in").gauge().value());
+        assertEquals(0.5, registry.get("flowersso.auth.coalescing.dedup.ratio").gauge().value());
+        pending.complete(testCredentials());
+    }
+
+    @Test
+    void breakerStateAndCountsArePublished() {
+        Authenticator delegate = mock(Authenticator.class);
+        when(delegate.authenticateAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new AuthenticationServiceException("Down")));
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 50, Duration.ofSeconds(5), 100, Duration.ofMinutes(1), 1);
+        ResilientAuthenticator resilient = new ResilientAuthenticator(delegate, breaker,
+                Duration.ofSeconds(1), Duration.ZERO);
+        ServiceMetrics.bindResilience(registry, resilient, breaker);
+
+        Token token = tokenExpiringIn(3600);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(AuthenticationException.class, () -> resilient.authenticate(token));
+        }
+
+        assertEquals(1.0, registry.get("flowersso.auth.breaker.state").tag("state", "open").gauge().value());
+        assertEquals(0.0, registry.get("flowersso.auth.breaker.state").tag("state", "closed").gauge().value());
+        assertEquals(1.0, registry.get("flowersso.auth.breaker.trips").functionCounter().count());
+        assertEquals(1.0, registry.get("flowersso.auth.breaker.rejected").functionCounter().count());
+        assertEquals(0.0, registry.get("flowersso.auth.hedges").functionCounter().count());
+    }
+
+    @Test
+    void passwordHasherCountsArePublished() {
+        PasswordHasher delegate = mock(PasswordHasher.class);
+        when(delegate.hash(any())).thenReturn("hashed");
+        try (BoundedPasswordHasher hasher = new BoundedPasswordHasher(delegate, 1, 4)) {
+            ServiceMetrics.bindPasswordHasher(registry, hasher);
+
+            hasher.hash("password");
+
+            assertEquals(1.0, registry.get("flowersso.password.hashing.completed").functionCounter().count());
+            assertEquals(0.0, registry.get("flowersso.password.hashing.rejected").functionCounter().count());
+            assertEquals(0.0, registry.get("flowersso.password.hashing.queue.depth").gauge().value());
+            assertEquals(hasher.getMeanHashNanos(),
+                    registry.get("flowersso.password.hashing.mean.hash").timeGauge().value(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private static Credentials testCredentials() {
+        Credentials credentials = new Credentials();
+        credentials.setId(10);
+        credentials.setFirstName("John");
+        credentials.setLastName("Smith");
+        return credentials;
+    }
+
+    private static Token tokenExpiringIn(long seconds) {
+        long exp = System.currentTimeMillis() / 1000 + seconds;
+        String header = encode("{\"alg\":\"HS256\"}");
+        String payload = encode("{\"id\":1,\"exp\":" + exp + ",\"sub\":\"" + "x".repeat(160) + "\"}");
+        return new Token(header + "." + payload + "." + "s".repeat(43));
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -21,6 +21,12 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Authenticator interface. 
  * This interface facilitates a connection to an authentication server to
@@ -30,7 +36,7 @@ package com.flowerSSO;
  * @author Ben Edens
  * @version 1.0
  */
-public interface Authenticator {
+public interface Authenticator extends AutoCloseable {
 
     /**
      * Sends a JSON Web Token (JWT) to an authentication server to be
@@ -40,4 +46,50 @@ public interface Authenticator {
      * @return a Credentials object storing the user's credentials
      */
     Credentials authenticate(Token token);
+
+    /**
+     * Authenticates a JSON Web Token (JWT) without blocking the calling thread.
+     * <p>
+     * The returned future completes with the user's credentials, or completes
+     * exceptionally with an AuthenticationException if the token cannot be authenticated.
+     * The default implementation authenticates synchronously on the calling thread;
+     * implementations that perform I/O should override it.
+     * 
+     * @param token a Token object containing a user's JSON Web Token (JWT) obtained from the authentication server
+     * @return a future completed with a Credentials object storing the user's credentials
+     */
+    default CompletableFuture<Credentials> authenticateAsync(Token token) {
+        try {
+            return CompletableFuture.completedFuture(authenticate(token));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Authenticates a batch of JSON Web Tokens (JWTs) in parallel without blocking the calling thread.
+     * <p>
+     * Each distinct token is verified once with {@link #authenticateAsync(Token)}; repeated
+     * tokens share the verification of their first occurrence.
+     * 
+     * @param tokens the tokens to authenticate
+     * @return a future for each token, in the same order as the tokens
+     */
+    default List<CompletableFuture<Credentials>> authenticateAllAsync(List<Token> tokens) {
+        Map<String, CompletableFuture<Credentials>> verifications = new HashMap<>();
+        List<CompletableFuture<Credentials>> results = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            results.add(verifications.computeIfAbsent(token.getToken(), key -> authenticateAsync(token)));
+        }
+        return results;
+    }
+
+    /**
+     * Releases the resources held by this authenticator, such as background threads.
+     * Authenticators that wrap another one close it too, so closing the outermost
+     * authenticator closes the whole chain. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
 }
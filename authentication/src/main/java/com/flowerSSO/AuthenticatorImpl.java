@@ -21,107 +21,339 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
-import java.net.URL;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * Implementation for Authenticator.java.
  * This class facilitates a connection to an authentication server to
  * retrieve user credentials using a JSON Web Token (JWT) provided by
  * the authentication server for Single Sign-On (SSO).
+ * <p>
+ * Requests are sent through a shared {@link HttpClient}, which keeps connections
+ * alive between calls and negotiates HTTP/2 where the server supports it.
  * 
  * @author Ben Edens
  * @version 1.0
  */
 public class AuthenticatorImpl implements Authenticator{
 
-    private URL serverUrl;
+    /**
+     * Shared, thread-safe reader for the credentials returned by the authentication server.
+     */
+    static final ObjectReader CREDENTIALS_READER = new ObjectMapper().readerFor(Credentials.class);
+
+    private static final byte[] TOKEN_JSON_PREFIX = "{\"token\": \"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOKEN_JSON_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static HttpClient defaultClient;
+
+    private URI serverUri;
+    private final HttpClient client;
+    private final Duration requestTimeout;
     private final Logger logger = LoggerFactory.getEventLogger();
 
     /**
      * Authenticator implementation constructor. Builds authentication server URL from provided string.
+     * Uses a shared HTTP client with default timeouts.
      * 
      * @param urlString a string version of the authentication server's URL
      */
     public AuthenticatorImpl(String urlString) {
+        this(urlString, getDefaultClient(), DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Authenticator implementation constructor. Builds authentication server URL from provided string.
+     * 
+     * @param urlString a string version of the authentication server's URL
+     * @param client the HTTP client used to contact the authentication server
+     * @param requestTimeout the maximum time to wait for the authentication server to respond
+     */
+    public AuthenticatorImpl(String urlString, HttpClient client, Duration requestTimeout) {
+        if (client == null || requestTimeout == null) {
+            throw new IllegalArgumentException("HTTP client and request timeout cannot be null");
+        }
+        this.client = client;
+        this.requestTimeout = requestTimeout;
         try {
             URI uri = new URI(urlString);
-            serverUrl = uri.toURL();
+            uri.toURL();
+            if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+                throw new MalformedURLException("Authentication server url must use http or https.");
+            }
+            serverUri = uri;
         } catch (URISyntaxException e) {
             logger.error("Cannot construct authentication server uri from provided String due to improper syntax.");
             throw new AuthenticationException("Cannot construct authentication server uri from provided String due to improper syntax.");
-        } catch (MalformedURLException f) {
+        } catch (MalformedURLException | IllegalArgumentException f) {
             logger.error("Cannot construct authentication server url from provided uri due to improper syntax.");
             throw new AuthenticationException("Cannot construct authentication server url from provided uri due to improper syntax.");
         }
     }
 
+    /**
+     * Builds an HTTP client for contacting the authentication server.
+     * <p>
+     * The client prefers HTTP/2 and keeps idle connections open for reuse. The JDK
+     * client's HTTP/1.1 keep-alive pool is unbounded by default; it can only be capped
+     * JVM-wide, by passing {@code -Djdk.httpclient.connectionPoolSize} at launch.
+     * 
+     * @param connectTimeout the maximum time to wait for a connection to be established
+     * @return a new HTTP client
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                         .version(HttpClient.Version.HTTP_2)
+                         .connectTimeout(connectTimeout)
+                         .followRedirects(HttpClient.Redirect.NEVER)
+                         .build();
+    }
+
+    /**
+     * Gets the HTTP client shared by authenticators constructed without one.
+     * 
+     * @return the shared default HTTP client
+     */
+    private static synchronized HttpClient getDefaultClient() {
+        if (defaultClient == null) {
+            defaultClient = newHttpClient(DEFAULT_CONNECT_TIMEOUT);
+        }
+        return defaultClient;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Credentials authenticate(Token token) {
         logger.info("Authenticating token.");
+        HttpRequest request = buildRequest(token);
         try {
-            if(serverUrl == null) {
-                logger.error("Null server url. Authenticator class instance improperly constructed.");
-                throw new AuthenticationException("Null server url. Class instance improperly constructed.");
-            }
-            if(token == null) {
-                logger.error("Null token provided: cannot authenticate.");
-                throw new AuthenticationException("Null token provided: cannot authenticate.");
-            }
-            logger.info("Setting up connection to external authentication server.");
-            HttpURLConnection connection = (HttpURLConnection) serverUrl.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            connection.setRequestProperty("Content-Type", "application/json");
-            String tokenJson = String.format("{\"token\": \"%s\"}", token.getToken());
             logger.info("Attempting to send data to authentication server.");
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] output = (tokenJson).getBytes("utf-8");
-                os.write(output, 0, output.length);
-            }
-            int responseCode = connection.getResponseCode();
-
-            if (responseCode == HttpURLConnection.HTTP_CREATED) {
-                logger.info("Received HTTP response code 201 from authentication server.");
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
-                String responseStr = response.toString();
-                ObjectMapper objectMapper = new ObjectMapper();
-                Credentials userCredentials;
-                userCredentials = objectMapper.readValue(responseStr, Credentials.class);
-                connection.disconnect();
-                if(userCredentials == null) {
-                    logger.error("Authenticator must not return null credentials");
-                    throw new AuthenticationException("Authenticator must not return null credentials.");
-                }
-                logger.info("Successfully received credentials from authentication server.");
-                return userCredentials;
-            } else {
-                connection.disconnect();
-                String errorMsg = String.format("Received response code %d from authentication server.", responseCode);
-                logger.error(errorMsg);
-                throw new AuthenticationException(errorMsg);
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                checkResponseCode(response.statusCode());
+                return readCredentials(body);
             }
+        } catch (HttpTimeoutException e) {
+            logger.error("Timed out waiting for authentication server.");
+            throw new AuthenticationServiceException("Timed out waiting for authentication server.");
         } catch (IOException e) {
             logger.error("Error connecting to authentication server.");
-            throw new AuthenticationException("Error connecting to authentication server.");
+            throw new AuthenticationServiceException("Error connecting to authentication server.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for authentication server.");
+            throw new AuthenticationServiceException("Interrupted while waiting for authentication server.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The request is sent with the HTTP client's asynchronous API, so no thread is
+     * held while waiting for the authentication server to respond.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        logger.info("Authenticating token asynchronously.");
+        HttpRequest request;
+        try {
+            request = buildRequest(token);
+        } catch (AuthenticationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        logger.info("Attempting to send data to authentication server.");
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                     .handle((response, error) -> {
+                         if (error != null) {
+                             throw toAuthenticationException(error);
+                         }
+                         checkResponseCode(response.statusCode());
+                         return readCredentials(response.body());
+                     });
+    }
+
+    /**
+     * Checks whether the authentication server is up.
+     * <p>
+     * Sends a bare GET to the verification URL; any response below 500 means the
+     * server is reachable and handling requests.
+     * 
+     * @return true if the authentication server responded without a server error
+     */
+    public boolean probe() {
+        HttpRequest request = HttpRequest.newBuilder(serverUri)
+                                         .timeout(requestTimeout)
+                                         .GET()
+                                         .build();
+        try {
+            int responseCode = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return responseCode < 500;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the URI of the authentication server.
+     * 
+     * @return the authentication server URI
+     */
+    public URI getServerUri() {
+        return serverUri;
+    }
+
+    /**
+     * Builds the verification request for a token.
+     * 
+     * @param token the token to verify
+     * @return the HTTP request to send to the authentication server
+     * @throws AuthenticationException if the authenticator or token is unusable
+     */
+    private HttpRequest buildRequest(Token token) {
+        if(serverUri == null) {
+            logger.error("Null server url. Authenticator class instance improperly constructed.");
+            throw new AuthenticationException("Null server url. Class instance improperly constructed.");
+        }
+        if(token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            throw new AuthenticationException("Null token provided: cannot authenticate.");
+        }
+        return HttpRequest.newBuilder(serverUri)
+                          .timeout(requestTimeout)
+                          .header("Content-Type", "application/json")
+                          .POST(HttpRequest.BodyPublishers.ofByteArray(tokenJson(token)))
+                          .build();
+    }
+
+    /**
+     * Encodes the verification request body, {@code {"token": "<jwt>"}}, for a token.
+     * <p>
+     * A validated JWT only contains base64url characters and dots, so it is copied
+     * into the body as-is without escaping.
+     * 
+     * @param token the token to verify
+     * @return the JSON request body as bytes
+     */
+    static byte[] tokenJson(Token token) {
+        String jwt = token.getToken();
+        byte[] body = new byte[TOKEN_JSON_PREFIX.length + jwt.length() + TOKEN_JSON_SUFFIX.length];
+        System.arraycopy(TOKEN_JSON_PREFIX, 0, body, 0, TOKEN_JSON_PREFIX.length);
+        for (int i = 0; i < jwt.length(); i++) {
+            body[TOKEN_JSON_PREFIX.length + i] = (byte) jwt.charAt(i);
+        }
+        System.arraycopy(TOKEN_JSON_SUFFIX, 0, body, TOKEN_JSON_PREFIX.length + jwt.length(), TOKEN_JSON_SUFFIX.length);
+        return body;
+    }
+
+    /**
+     * Checks that the authentication server accepted the token.
+     * 
+     * Only 401 and 403 reject the token itself; any other status, including
+     * 404, 408 and 429, means the server could not give a verdict.
+     * 
+     * @param responseCode the HTTP response code
+     * @throws TokenRejectedException if the server refused the token
+     * @throws AuthenticationServiceException if the server failed or gave no verdict
+     */
+    private void checkResponseCode(int responseCode) {
+        if (responseCode != 201) {
+            String errorMsg = String.format("Received response code %d from authentication server.", responseCode);
+            logger.error(errorMsg);
+            if (responseCode == 401 || responseCode == 403) {
+                throw new TokenRejectedException(errorMsg);
+            }
+            throw new AuthenticationServiceException(errorMsg);
+        }
+        logger.info("Received HTTP response code 201 from authentication server.");
+    }
+
+    /**
+     * Reads the user's credentials straight from the authentication server's response stream.
+     * 
+     * @param body the response body
+     * @return the user's credentials
+     * @throws IOException if the response cannot be read from the connection
+     * @throws AuthenticationServiceException if the response is not valid credentials
+     */
+    private Credentials readCredentials(InputStream body) throws IOException {
+        try {
+            return checkCredentials(CREDENTIALS_READER.readValue(body));
+        } catch (JsonProcessingException e) {
+            logger.error("Error reading credentials from authentication server.");
+            throw new AuthenticationServiceException("Error reading credentials from authentication server.");
+        }
+    }
+
+    /**
+     * Reads the user's credentials from a fully received response body.
+     * 
+     * @param body the response body
+     * @return the user's credentials
+     * @throws AuthenticationServiceException if the response is not valid credentials
+     */
+    private Credentials readCredentials(byte[] body) {
+        try {
+            return checkCredentials(CREDENTIALS_READER.readValue(body));
+        } catch (IOException e) {
+            logger.error("Error reading credentials from authentication server.");
+            throw new AuthenticationServiceException("Error reading credentials from authentication server.");
+        }
+    }
+
+    /**
+     * Checks that the authentication server returned credentials.
+     * 
+     * @param userCredentials the parsed credentials
+     * @return the user's credentials
+     * @throws AuthenticationException if the credentials are null
+     */
+    private Credentials checkCredentials(Credentials userCredentials) {
+        if(userCredentials == null) {
+            logger.error("Authenticator must not return null credentials");
+            throw new AuthenticationException("Authenticator must not return null credentials.");
+        }
+        logger.info("Successfully received credentials from authentication server.");
+        return userCredentials;
+    }
+
+    /**
+     * Converts a failure of an asynchronous request into an AuthenticationException.
+     * 
+     * @param error the failure, possibly wrapped in a CompletionException
+     * @return the equivalent AuthenticationException
+     */
+    private AuthenticationException toAuthenticationException(Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        if (cause instanceof AuthenticationException authenticationException) {
+            return authenticationException;
+        }
+        if (cause instanceof HttpTimeoutException) {
+            logger.error("Timed out waiting for authentication server.");
+            return new AuthenticationServiceException("Timed out waiting for authentication server.");
         }
+        logger.error("Error connecting to authentication server.");
+        return new AuthenticationServiceException("Error connecting to authentication server.");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,232 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Caching decorator for an Authenticator.
+ * <p>
+ * Remembers the credentials returned by a delegate Authenticator, keyed by a digest
+ * of the token, so that a token presented many times does not cost one round-trip to
+ * the authentication server per request. The cache is bounded in size (W-TinyLFU
+ * eviction) and each entry expires no later than the token's {@code exp} claim or the
+ * configured maximum lifetime, whichever comes first.
+ */
+public class CachingAuthenticator implements Authenticator {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+
+    private final Authenticator delegate;
+
+    private final Cache<String, CachedCredentials> cache;
+
+    private final long maxTtlNanos;
+
+    /**
+     * Constructs a caching authenticator.
+     *
+     * @param delegate the authenticator used on a cache miss
+     * @param maxSize the maximum number of verified tokens to hold
+     * @param maxTtl the maximum time a verified token is cached
+     */
+    public CachingAuthenticator(Authenticator delegate, int maxSize, Duration maxTtl) {
+        this(delegate, maxSize, maxTtl, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a caching authenticator that performs cache maintenance on the given executor.
+     *
+     * @param delegate the authenticator used on a cache miss
+     * @param maxSize the maximum number of verified tokens to hold
+     * @param maxTtl the maximum time a verified token is cached
+     * @param executor the executor used for eviction and removal work
+     */
+    CachingAuthenticator(Authenticator delegate, int maxSize, Duration maxTtl, Executor executor) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate authenticator cannot be null");
+        }
+        if (maxSize < 0 || maxTtl == null || maxTtl.isNegative()) {
+            throw new IllegalArgumentException("Cache size and lifetime must be non-negative");
+        }
+        this.delegate = delegate;
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maxSize)
+                             .expireAfter(new TokenExpiry())
+                             .executor(executor)
+                             .recordStats()
+                             .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a copy of the cached credentials when the token has already been verified,
+     * otherwise verifies it with the delegate and caches the result.
+     */
+    @Override
+    public Credentials authenticate(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            throw new AuthenticationException("Null token provided: cannot authenticate.");
+        }
+        String key = token.getDigest();
+        CachedCredentials cached = cache.getIfPresent(key);
+        if (cached != null) {
+            logger.debug("Verified token cache hit.");
+            return new Credentials(cached.credentials());
+        }
+        Credentials credentials = delegate.authenticate(token);
+        store(key, token, credentials);
+        return credentials;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Completes immediately with a copy of the cached credentials when the token has
+     * already been verified, otherwise verifies it asynchronously with the delegate and
+     * caches the result once it arrives.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            return CompletableFuture.failedFuture(new AuthenticationException("Null token provided: cannot authenticate."));
+        }
+        String key = token.getDigest();
+        CachedCredentials cached = cache.getIfPresent(key);
+        if (cached != null) {
+            logger.debug("Verified token cache hit.");
+            return CompletableFuture.completedFuture(new Credentials(cached.credentials()));
+        }
+        return delegate.authenticateAsync(token)
+                       .thenApply(credentials -> {
+                           store(key, token, credentials);
+                           return credentials;
+                       });
+    }
+
+    /**
+     * Removes a token from the cache so that its next use is verified again.
+     *
+     * @param token the token to forget
+     */
+    public void invalidate(Token token) {
+        cache.invalidate(token.getDigest());
+    }
+
+    /**
+     * Gets the number of verifications answered from the cache.
+     * @return The cache hit count.
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * Gets the number of verifications passed on to the delegate authenticator.
+     * @return The cache miss count.
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * Gets the number of entries evicted to keep the cache within its size bound.
+     * @return The cache eviction count.
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Gets the approximate number of tokens currently cached.
+     * @return The estimated cache size.
+     */
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Closes the wrapped authenticator.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Performs any pending cache maintenance, such as evictions.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Caches the credentials of a freshly verified token, unless it is about to expire.
+     *
+     * @param key the token digest
+     * @param token the verified token
+     * @param credentials the credentials returned by the delegate
+     */
+    private void store(String key, Token token, Credentials credentials) {
+        long ttlNanos = UnverifiedClaims.remainingNanos(token, maxTtlNanos);
+        if (ttlNanos > 0) {
+            cache.put(key, new CachedCredentials(new Credentials(credentials), ttlNanos));
+        }
+    }
+
+    /**
+     * Cache entry holding verified credentials and how long they may be cached.
+     */
+    private record CachedCredentials(Credentials credentials, long ttlNanos) {}
+
+    /**
+     * Expires each entry after its own lifetime, which is fixed when the token is verified.
+     */
+    private static final class TokenExpiry implements Expiry<String, CachedCredentials> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedCredentials value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedCredentials value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedCredentials value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
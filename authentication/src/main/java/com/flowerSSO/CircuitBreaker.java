@@ -0,0 +1,272 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker guarding calls to a remote service.
+ * <p>
+ * The outcome and latency of the most recent calls are kept in a sliding window.
+ * When enough calls have been seen and either the failure rate or the slow-call
+ * rate reaches its threshold, the breaker opens and callers fail fast for a fixed
+ * period. It then lets a small number of trial calls through (half-open): if they
+ * all succeed quickly the breaker closes again, otherwise it reopens.
+ * <p>
+ * Calls are permitted and recorded under the breaker's lock. The getters read
+ * volatile snapshots instead, so metrics scrapes never contend with requests.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        /** Calls are allowed and their outcomes recorded. */
+        CLOSED,
+        /** Calls are rejected without contacting the service. */
+        OPEN,
+        /** A limited number of trial calls are allowed to probe the service. */
+        HALF_OPEN
+    }
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final int slowCallRatePercent;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private volatile int windowFailureRatePercent;
+    private volatile int windowSlowCallRatePercent;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private int trialsPermitted;
+    private int trialsSucceeded;
+    private volatile long tripCount;
+    private volatile long rejectedCount;
+
+    /**
+     * Constructs a circuit breaker.
+     *
+     * @param windowSize the number of recent calls the rates are computed over
+     * @param minimumCalls the number of calls that must be recorded before the breaker may trip
+     * @param failureRatePercent the failure rate, in percent, at which the breaker trips
+     * @param slowCallThreshold the duration above which a call counts as slow
+     * @param slowCallRatePercent the slow-call rate, in percent, at which the breaker trips
+     * @param openDuration how long the breaker fails fast before allowing trial calls
+     * @param halfOpenCalls the number of successful trial calls needed to close the breaker
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, Duration slowCallThreshold,
+                          int slowCallRatePercent, Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRatePercent, slowCallThreshold, slowCallRatePercent,
+             openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    /**
+     * Constructs a circuit breaker that reads time from the given clock.
+     *
+     * @param windowSize the number of recent calls the rates are computed over
+     * @param minimumCalls the number of calls that must be recorded before the breaker may trip
+     * @param failureRatePercent the failure rate, in percent, at which the breaker trips
+     * @param slowCallThreshold the duration above which a call counts as slow
+     * @param slowCallRatePercent the slow-call rate, in percent, at which the breaker trips
+     * @param openDuration how long the breaker fails fast before allowing trial calls
+     * @param halfOpenCalls the number of successful trial calls needed to close the breaker
+     * @param clock the source of the current time in nanoseconds
+     */
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, Duration slowCallThreshold,
+                   int slowCallRatePercent, Duration openDuration, int halfOpenCalls, LongSupplier clock) {
+        if (windowSize <= 0 || minimumCalls <= 0 || halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("Window size, minimum calls and half-open calls must be positive");
+        }
+        if (failureRatePercent <= 0 || failureRatePercent > 100 || slowCallRatePercent <= 0 || slowCallRatePercent > 100) {
+            throw new IllegalArgumentException("Rate thresholds must be between 1 and 100 percent");
+        }
+        if (slowCallThreshold == null || openDuration == null || slowCallThreshold.isNegative() || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Slow call threshold and open duration must be non-negative");
+        }
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * Asks permission to make a call. Every permitted call must be followed by
+     * exactly one call to {@link #record(boolean, long)}.
+     *
+     * @return true if the call may proceed, false if it must fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                rejectedCount++;
+                return false;
+            }
+            logger.info("Circuit breaker half-open: allowing trial calls.");
+            state = State.HALF_OPEN;
+            trialsPermitted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsPermitted >= halfOpenCalls) {
+                rejectedCount++;
+                return false;
+            }
+            trialsPermitted++;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param failure true if the service failed to handle the call
+     * @param durationNanos how long the call took
+     */
+    public synchronized void record(boolean failure, long durationNanos) {
+        boolean slowCall = durationNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failure || slowCall) {
+                trip("trial call failed");
+            } else if (++trialsSucceeded >= halfOpenCalls) {
+                logger.info("Circuit breaker closed: trial calls succeeded.");
+                state = State.CLOSED;
+                clearWindow();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (recorded == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % failed.length;
+        windowFailureRatePercent = failures * 100 / recorded;
+        windowSlowCallRatePercent = slowCalls * 100 / recorded;
+        if (recorded >= minimumCalls) {
+            if (failures * 100 >= failureRatePercent * recorded) {
+                trip("failure rate reached " + (failures * 100 / recorded) + "%");
+            } else if (slowCalls * 100 >= slowCallRatePercent * recorded) {
+                trip("slow call rate reached " + (slowCalls * 100 / recorded) + "%");
+            }
+        }
+    }
+
+    /**
+     * Gets the current state of the breaker.
+     * @return The breaker state.
+     */
+    public State getState() {
+        State current = state;
+        if (current == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return current;
+    }
+
+    /**
+     * Gets the number of times the breaker has opened.
+     * @return The trip count.
+     */
+    public long getTripCount() {
+        return tripCount;
+    }
+
+    /**
+     * Gets the number of calls rejected without contacting the service.
+     * @return The rejected call count.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Gets the failure rate over the current window.
+     * @return The failure rate in percent.
+     */
+    public int getFailureRatePercent() {
+        return windowFailureRatePercent;
+    }
+
+    /**
+     * Gets the slow-call rate over the current window.
+     * @return The slow-call rate in percent.
+     */
+    public int getSlowCallRatePercent() {
+        return windowSlowCallRatePercent;
+    }
+
+    /**
+     * Opens the breaker.
+     *
+     * @param reason why the breaker is opening, for the log
+     */
+    private void trip(String reason) {
+        logger.warn("Circuit breaker opened: " + reason + ".");
+        // Set before the state, so that a lock-free reader seeing OPEN sees when it opened
+        openedAt = clock.getAsLong();
+        state = State.OPEN;
+        tripCount++;
+        clearWindow();
+    }
+
+    /**
+     * Forgets all recorded outcomes.
+     */
+    private void clearWindow() {
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        windowFailureRatePercent = 0;
+        windowSlowCallRatePercent = 0;
+    }
+}
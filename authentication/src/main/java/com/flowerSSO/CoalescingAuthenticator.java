@@ -0,0 +1,223 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request-coalescing decorator for an Authenticator.
+ * <p>
+ * When several requests present the same token at the same moment, only the first
+ * caller verifies it with the delegate; the others wait on the same in-flight
+ * verification and share its outcome. Nothing is remembered once the verification
+ * completes, so a token presented afterwards is verified again (or answered by a
+ * cache placed in front of this authenticator).
+ */
+public class CoalescingAuthenticator implements Authenticator {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+
+    private final Authenticator delegate;
+
+    private final ConcurrentMap<String, CompletableFuture<Credentials>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder flights = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Constructs a coalescing authenticator.
+     *
+     * @param delegate the authenticator that performs each verification
+     */
+    public CoalescingAuthenticator(Authenticator delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate authenticator cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Joins a verification of the same token already in flight, if there is one,
+     * otherwise verifies the token with the delegate on the calling thread.
+     */
+    @Override
+    public Credentials authenticate(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            throw new AuthenticationException("Null token provided: cannot authenticate.");
+        }
+        String key = token.getDigest();
+        requests.increment();
+        CompletableFuture<Credentials> flight = new CompletableFuture<>();
+        CompletableFuture<Credentials> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            logger.debug("Joined in-flight verification of token.");
+            return new Credentials(await(existing));
+        }
+        flights.increment();
+        Credentials credentials;
+        try {
+            credentials = delegate.authenticate(token);
+        } catch (Throwable e) {
+            // Errors too: callers waiting on a flight that never completes would block forever
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, flight);
+        flight.complete(credentials);
+        return new Credentials(credentials);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a future sharing the outcome of a verification of the same token already
+     * in flight, if there is one, otherwise starts one with the delegate.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            return CompletableFuture.failedFuture(new AuthenticationException("Null token provided: cannot authenticate."));
+        }
+        String key = token.getDigest();
+        requests.increment();
+        CompletableFuture<Credentials> flight = new CompletableFuture<>();
+        CompletableFuture<Credentials> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            logger.debug("Joined in-flight verification of token.");
+            return existing.thenApply(Credentials::new);
+        }
+        flights.increment();
+        CompletableFuture<Credentials> verification;
+        try {
+            verification = delegate.authenticateAsync(token);
+        } catch (Throwable e) {
+            verification = CompletableFuture.failedFuture(e);
+        }
+        verification.whenComplete((credentials, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(unwrap(error));
+            } else {
+                flight.complete(credentials);
+            }
+        });
+        return flight.thenApply(Credentials::new);
+    }
+
+    /**
+     * Gets the number of verifications requested of this authenticator.
+     * @return The request count.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Gets the number of verifications actually passed on to the delegate authenticator.
+     * @return The delegate call count.
+     */
+    public long getFlightCount() {
+        return flights.sum();
+    }
+
+    /**
+     * Gets the number of requests that joined a verification already in flight.
+     * @return The coalesced request count.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the number of verifications currently in flight.
+     * @return The in-flight verification count.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Gets the average number of requests served by each delegate call.
+     * @return The fan-in, 1.0 when nothing has been coalesced or requested.
+     */
+    public double getFanIn() {
+        long flightCount = flights.sum();
+        return flightCount == 0 ? 1.0 : (double) requests.sum() / flightCount;
+    }
+
+    /**
+     * Gets the fraction of requests that did not need their own delegate call.
+     * @return The de-duplication ratio, between 0.0 and 1.0.
+     */
+    public double getDedupRatio() {
+        long requestCount = requests.sum();
+        return requestCount == 0 ? 0.0 : (double) coalesced.sum() / requestCount;
+    }
+
+    /**
+     * Closes the wrapped authenticator.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Waits for an in-flight verification and rethrows its failure, if any.
+     *
+     * @param flight the in-flight verification
+     * @return the verified credentials
+     */
+    private static Credentials await(CompletableFuture<Credentials> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AuthenticationException("Unable to authenticate token.", cause);
+        }
+    }
+
+    /**
+     * Strips the CompletionException wrapper added by dependent stages.
+     *
+     * @param error the failure
+     * @return the underlying cause
+     */
+    private static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+}
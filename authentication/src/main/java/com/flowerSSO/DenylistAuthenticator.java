@@ -0,0 +1,186 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Decorator that turns away revoked and recently rejected tokens before they reach
+ * the rest of the Authenticator chain.
+ * <p>
+ * Revoked tokens are refused for as long as they are on the {@link TokenRevocationList}.
+ * Tokens the delegate rejects are remembered by digest in a bounded, expiring negative
+ * cache, so that replays of invalid or expired tokens are refused in-process instead of
+ * costing another verification. Failures of the authentication service itself are never
+ * remembered.
+ */
+public class DenylistAuthenticator implements Authenticator {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
+
+    private final Authenticator delegate;
+    private final TokenRevocationList revocations;
+    private final Cache<String, Boolean> rejected;
+
+    private final LongAdder revokedHits = new LongAdder();
+    private final LongAdder rejectedHits = new LongAdder();
+
+    /**
+     * Constructs a denylist authenticator.
+     *
+     * @param delegate the authenticator for tokens that are not denied
+     * @param revocations the tokens revoked by administrators
+     * @param negativeMaxSize the maximum number of rejected tokens remembered
+     * @param negativeTtl how long a rejected token is remembered
+     */
+    public DenylistAuthenticator(Authenticator delegate, TokenRevocationList revocations, int negativeMaxSize, Duration negativeTtl) {
+        if (delegate == null || revocations == null) {
+            throw new IllegalArgumentException("Delegate authenticator and revocation list cannot be null");
+        }
+        if (negativeMaxSize < 0 || negativeTtl == null || negativeTtl.isNegative()) {
+            throw new IllegalArgumentException("Negative cache size and lifetime must be non-negative");
+        }
+        this.delegate = delegate;
+        this.revocations = revocations;
+        this.rejected = Caffeine.newBuilder()
+                                .maximumSize(negativeMaxSize)
+                                .expireAfterWrite(negativeTtl)
+                                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Refuses revoked and recently rejected tokens without consulting the delegate.
+     */
+    @Override
+    public Credentials authenticate(Token token) {
+        String key = deny(token);
+        try {
+            return delegate.authenticate(token);
+        } catch (AuthenticationException e) {
+            remember(key, e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Refuses revoked and recently rejected tokens without consulting the delegate.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        String key;
+        try {
+            key = deny(token);
+        } catch (AuthenticationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return delegate.authenticateAsync(token)
+                       .whenComplete((credentials, error) -> {
+                           Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+                           if (cause instanceof AuthenticationException authenticationException) {
+                               remember(key, authenticationException);
+                           }
+                       });
+    }
+
+    /**
+     * Gets the number of verifications refused because the token was revoked.
+     * @return The revoked token hit count.
+     */
+    public long getRevokedHitCount() {
+        return revokedHits.sum();
+    }
+
+    /**
+     * Gets the number of verifications refused because the token was recently rejected.
+     * @return The negative cache hit count.
+     */
+    public long getRejectedHitCount() {
+        return rejectedHits.sum();
+    }
+
+    /**
+     * Gets the approximate number of rejected tokens remembered.
+     * @return The estimated negative cache size.
+     */
+    public long getRejectedSize() {
+        return rejected.estimatedSize();
+    }
+
+    /**
+     * Closes the wrapped authenticator.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Refuses a token that is revoked or was recently rejected.
+     *
+     * @param token the token presented
+     * @return the token digest, for remembering a rejection
+     * @throws AuthenticationException if the token is null, revoked or recently rejected
+     */
+    private String deny(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            throw new AuthenticationException("Null token provided: cannot authenticate.");
+        }
+        String key = token.getDigest();
+        if (revocations.isRevoked(key)) {
+            revokedHits.increment();
+            securityLogger.warn("Rejected revoked token.");
+            throw new TokenRejectedException("Token has been revoked.");
+        }
+        if (rejected.getIfPresent(key) != null) {
+            rejectedHits.increment();
+            securityLogger.info("Rejected replay of a recently rejected token.");
+            throw new TokenRejectedException("Token was recently rejected.");
+        }
+        return key;
+    }
+
+    /**
+     * Remembers a token the delegate definitively rejected. Failures that say nothing
+     * about the token itself, such as service errors, throttling or a missing route,
+     * are not remembered so the token can be retried.
+     *
+     * @param key the token digest
+     * @param e the rejection
+     */
+    private void remember(String key, AuthenticationException e) {
+        if (e instanceof TokenRejectedException) {
+            rejected.put(key, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Authenticator that balances verifications across several authentication server replicas.
+ * <p>
+ * Each verification goes to the better of two randomly chosen healthy replicas, scored
+ * by outstanding requests weighted by an exponentially weighted moving average (EWMA)
+ * of latency, so that slow or busy replicas receive less traffic. A replica that fails
+ * several times in a row is ejected and probed in the background until it responds
+ * again. If every replica has been ejected, all of them are used rather than failing
+ * every request.
+ */
+public class LoadBalancingAuthenticator implements Authenticator {
+
+    /**
+     * Weight given to the latest latency sample in each replica's moving average.
+     */
+    private static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * Load score of a busy replica that has not completed a verification yet.
+     */
+    private static final double UNMEASURED_PENALTY = 1.0e15;
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+
+    private final List<Endpoint> endpoints;
+    private final int ejectAfterFailures;
+    private final ScheduledExecutorService prober;
+
+    private final LongAdder ejections = new LongAdder();
+
+    /**
+     * Constructs a load-balancing authenticator.
+     *
+     * @param replicas the authenticators for each replica
+     * @param ejectAfterFailures the number of consecutive failures after which a replica is ejected
+     * @param probeInterval how often ejected replicas are probed
+     */
+    public LoadBalancingAuthenticator(List<AuthenticatorImpl> replicas, int ejectAfterFailures, Duration probeInterval) {
+        if (replicas == null || replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one authentication server replica is required");
+        }
+        if (ejectAfterFailures <= 0 || probeInterval == null || probeInterval.isNegative() || probeInterval.isZero()) {
+            throw new IllegalArgumentException("Ejection threshold and probe interval must be positive");
+        }
+        List<Endpoint> endpointList = new ArrayList<>(replicas.size());
+        for (AuthenticatorImpl replica : replicas) {
+            endpointList.add(new Endpoint(replica));
+        }
+        this.endpoints = List.copyOf(endpointList);
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auth-endpoint-prober");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = probeInterval.toMillis();
+        prober.scheduleWithFixedDelay(this::probeEjected, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Verifies the token with the chosen replica.
+     */
+    @Override
+    public Credentials authenticate(Token token) {
+        Endpoint endpoint = choose();
+        endpoint.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            Credentials credentials = endpoint.replica.authenticate(token);
+            onOutcome(endpoint, start, null);
+            return credentials;
+        } catch (RuntimeException e) {
+            onOutcome(endpoint, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Verifies the token with the chosen replica.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        Endpoint endpoint = choose();
+        endpoint.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<Credentials> verification;
+        try {
+            verification = endpoint.replica.authenticateAsync(token);
+        } catch (RuntimeException e) {
+            verification = CompletableFuture.failedFuture(e);
+        }
+        return verification.whenComplete((credentials, error) -> onOutcome(endpoint, start, error));
+    }
+
+    /**
+     * Gets the number of replicas.
+     * @return The replica count.
+     */
+    public int getEndpointCount() {
+        return endpoints.size();
+    }
+
+    /**
+     * Gets the number of replicas currently receiving traffic.
+     * @return The healthy replica count.
+     */
+    public int getHealthyEndpointCount() {
+        int healthy = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Gets the number of times a replica has been ejected.
+     * @return The ejection count.
+     */
+    public long getEjectionCount() {
+        return ejections.sum();
+    }
+
+    /**
+     * Stops probing ejected replicas.
+     */
+    @Override
+    public void close() {
+        prober.shutdownNow();
+    }
+
+    /**
+     * Picks the replica for the next verification using the power of two choices.
+     *
+     * @return the chosen replica
+     */
+    private Endpoint choose() {
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            logger.warn("All authentication server replicas are ejected; using all of them.");
+            candidates = endpoints;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+        return a.load() <= b.load() ? a : b;
+    }
+
+    /**
+     * Records the outcome of a verification sent to a replica.
+     *
+     * @param endpoint the replica
+     * @param start when the verification started, from {@link System#nanoTime()}
+     * @param error the failure, or null if the replica answered
+     */
+    private void onOutcome(Endpoint endpoint, long start, Throwable error) {
+        endpoint.outstanding.decrementAndGet();
+        endpoint.recordLatency(System.nanoTime() - start);
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        boolean serviceFailure = cause != null
+                && (cause instanceof AuthenticationServiceException || !(cause instanceof AuthenticationException));
+        if (!serviceFailure) {
+            endpoint.consecutiveFailures.set(0);
+            return;
+        }
+        if (endpoint.consecutiveFailures.incrementAndGet() >= ejectAfterFailures && endpoint.healthy) {
+            endpoint.healthy = false;
+            ejections.increment();
+            logger.warn("Ejected authentication server replica " + endpoint.replica.getServerUri() + ".");
+        }
+    }
+
+    /**
+     * Probes every ejected replica and restores those that respond.
+     */
+    private void probeEjected() {
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.healthy && endpoint.replica.probe()) {
+                endpoint.consecutiveFailures.set(0);
+                endpoint.healthy = true;
+                logger.info("Restored authentication server replica " + endpoint.replica.getServerUri() + ".");
+            }
+        }
+    }
+
+    /**
+     * Load-balancing state of a single replica.
+     */
+    private static final class Endpoint {
+
+        private final AuthenticatorImpl replica;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile double ewmaNanos;
+
+        Endpoint(AuthenticatorImpl replica) {
+            this.replica = replica;
+        }
+
+        /**
+         * Estimates how long a new verification would wait on this replica.
+         *
+         * @return the load score, lower is better
+         */
+        double load() {
+            int pending = outstanding.get();
+            if (ewmaNanos == 0.0) {
+                // No latency sample yet: idle replicas are tried first, busy ones last.
+                return pending == 0 ? 0.0 : UNMEASURED_PENALTY + pending;
+            }
+            return (pending + 1) * ewmaNanos;
+        }
+
+        /**
+         * Folds a latency sample into the moving average.
+         *
+         * @param latencyNanos the latency of a completed verification
+         */
+        synchronized void recordLatency(long latencyNanos) {
+            ewmaNanos = (ewmaNanos == 0.0) ? latencyNanos : EWMA_ALPHA * latencyNanos + (1 - EWMA_ALPHA) * ewmaNanos;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.security.Key;
+import java.util.concurrent.CompletableFuture;
+
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
+
+/**
+ * Authenticator that verifies JSON Web Tokens in-process.
+ * <p>
+ * Tokens minted by this server's Tokenizer are checked for signature, issuer and
+ * expiry locally, and the user's credentials are built straight from the token's
+ * claims, so no call to the external authentication server is needed. Optionally,
+ * tokens that name a key this server does not hold are passed on to a fallback
+ * Authenticator (hybrid mode). A token that names one of this server's keys but fails
+ * its signature check is rejected outright, so forged tokens never cost a call to the
+ * fallback.
+ */
+public class LocalAuthenticator implements Authenticator {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
+
+    private final JwtParser parser;
+
+    private final Authenticator fallback;
+
+    /**
+     * Constructs a local authenticator that rejects any token it cannot verify itself.
+     *
+     * @param signingKey the key tokens are signed with
+     * @param issuer the required issuer claim
+     */
+    public LocalAuthenticator(SecretKey signingKey, String issuer) {
+        this(signingKey, issuer, null);
+    }
+
+    /**
+     * Constructs a local authenticator that passes foreign tokens to a fallback authenticator.
+     * Tokens minted here carry no key ID: a token naming a key was signed by someone else.
+     *
+     * @param signingKey the key tokens are signed with
+     * @param issuer the required issuer claim
+     * @param fallback the authenticator for tokens naming a key ID, or null to reject them
+     */
+    public LocalAuthenticator(SecretKey signingKey, String issuer, Authenticator fallback) {
+        if (signingKey == null || issuer == null) {
+            throw new IllegalArgumentException("Signing key and issuer cannot be null");
+        }
+        this.parser = parser(header -> header instanceof ProtectedHeader protectedHeader
+                && protectedHeader.getKeyId() == null ? signingKey : null, issuer);
+        this.fallback = fallback;
+    }
+
+    /**
+     * Constructs a local authenticator that looks up the verification key of each
+     * token, for instance by its {@code kid} among rotating signing keys, and passes
+     * tokens whose key it cannot find to a fallback authenticator.
+     *
+     * @param keyLocator finds the key a token is verified with, or returns null if it was signed by someone else
+     * @param issuer the required issuer claim, or null for tokens minted without one, which the key alone vouches for
+     * @param fallback the authenticator for tokens whose key cannot be found, or null to reject them
+     */
+    public LocalAuthenticator(Locator<Key> keyLocator, String issuer, Authenticator fallback) {
+        if (keyLocator == null) {
+            throw new IllegalArgumentException("Key locator cannot be null");
+        }
+        this.parser = parser(keyLocator, issuer);
+        this.fallback = fallback;
+    }
+
+    /**
+     * Builds the parser that verifies this server's tokens.
+     *
+     * @param keyLocator finds the key a token is verified with, or returns null if it was signed by someone else
+     * @param issuer the required issuer claim, or null to accept tokens without one
+     * @return the token parser
+     */
+    private static JwtParser parser(Locator<Key> keyLocator, String issuer) {
+        JwtParserBuilder builder = Jwts.parser().keyLocator(new OwnKeyLocator(keyLocator));
+        if (issuer != null) {
+            builder.requireIssuer(issuer);
+        }
+        return builder.build();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Verifies the token's signature, issuer and expiry locally and builds the
+     * credentials from its claims.
+     */
+    @Override
+    public Credentials authenticate(Token token) {
+        Claims claims = verify(token);
+        if (claims == null) {
+            return fallback.authenticate(token);
+        }
+        return credentialsFrom(token, claims);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tokens signed by this server are verified on the calling thread, which involves
+     * no I/O; tokens deferred to the fallback authenticator use its asynchronous path.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        try {
+            Claims claims = verify(token);
+            if (claims == null) {
+                return fallback.authenticateAsync(token);
+            }
+            return CompletableFuture.completedFuture(credentialsFrom(token, claims));
+        } catch (AuthenticationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Closes the fallback authenticator, if any.
+     */
+    @Override
+    public void close() {
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+
+    /**
+     * Verifies a token's signature, issuer and expiry.
+     *
+     * @param token the token to verify
+     * @return the verified claims, or null if the token was not signed by this server and should be passed to the fallback
+     * @throws AuthenticationException if the token is rejected
+     */
+    private Claims verify(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            throw new AuthenticationException("Null token provided: cannot authenticate.");
+        }
+        try {
+            return parser.parseSignedClaims(token.getToken()).getPayload();
+        } catch (ForeignKeyException e) {
+            if (fallback != null) {
+                logger.debug("Token not signed by this server; deferring to authentication server.");
+                return null;
+            }
+            securityLogger.warn("Rejected token signed with an unknown key.");
+            throw new TokenRejectedException("Token signature could not be verified.", e);
+        } catch (SecurityException | UnsupportedJwtException e) {
+            securityLogger.warn("Rejected token with invalid signature.");
+            throw new TokenRejectedException("Token signature could not be verified.", e);
+        } catch (ExpiredJwtException e) {
+            securityLogger.info("Rejected expired token.");
+            throw new TokenRejectedException("Token has expired.", e);
+        } catch (JwtException | IllegalArgumentException e) {
+            securityLogger.warn("Rejected invalid token.");
+            throw new TokenRejectedException("Token is invalid.", e);
+        }
+    }
+
+    /**
+     * Builds user credentials from verified token claims, rejecting claims that fail
+     * validation, and records the verified claims on the token for later readers.
+     *
+     * @param token the verified token
+     * @param claims the verified claims
+     * @return the user's credentials
+     * @throws AuthenticationException if a claim is invalid
+     */
+    private Credentials credentialsFrom(Token token, Claims claims) {
+        try {
+            TokenClaims verifiedClaims = TokenClaims.verified(claims);
+            Credentials credentials = verifiedClaims.toCredentials();
+            token.setVerifiedClaims(verifiedClaims);
+            logger.info("Successfully verified token locally.");
+            return credentials;
+        } catch (IllegalArgumentException | JwtException e) {
+            securityLogger.warn("Rejected token with invalid claims.");
+            throw new TokenRejectedException("Token claims are invalid.", e);
+        }
+    }
+
+    /**
+     * Finds the key a token minted here is verified with. A token whose key cannot be
+     * found was signed elsewhere and is reported as foreign instead of failing its
+     * signature check.
+     */
+    private static final class OwnKeyLocator extends LocatorAdapter<Key> {
+
+        private final Locator<Key> keyLocator;
+
+        OwnKeyLocator(Locator<Key> keyLocator) {
+            this.keyLocator = keyLocator;
+        }
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            Key key = keyLocator.locate(header);
+            if (key == null) {
+                throw new ForeignKeyException("Token is signed with key " + header.getKeyId() + ", which this server does not hold.");
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Thrown while parsing a token signed with a key this server does not hold.
+     */
+    private static final class ForeignKeyException extends JwtException {
+
+        ForeignKeyException(String message) {
+            super(message);
+        }
+    }
+}
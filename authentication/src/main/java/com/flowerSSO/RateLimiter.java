@@ -0,0 +1,118 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-process rate limiter that allows each key a number of calls per period.
+ * <p>
+ * Each key is a token bucket holding up to {@code limit} calls that refills evenly over
+ * the period, kept as a single theoretical arrival time (the generic cell rate algorithm)
+ * in an AtomicLong and updated with compare-and-set, so checks never lock. A bucket left
+ * alone for a full period is full again, so it expires from memory then; the number of
+ * buckets is also capped, evicting the least used first.
+ */
+public class RateLimiter {
+
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final LongSupplier nanoClock;
+
+    // Time for one call's worth of tokens to refill
+    private final long intervalNanos;
+
+    // How far the arrival time may run ahead of now: the burst of calls beyond the first
+    private final long toleranceNanos;
+
+    /**
+     * Constructs a rate limiter.
+     *
+     * @param limit the calls allowed per period, all of which may be made at once
+     * @param period the time over which the limit refills
+     * @param maxKeys the most keys tracked at once
+     */
+    public RateLimiter(int limit, Duration period, int maxKeys) {
+        this(limit, period, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * Constructs a rate limiter with its own clock.
+     *
+     * @param limit the calls allowed per period, all of which may be made at once
+     * @param period the time over which the limit refills
+     * @param maxKeys the most keys tracked at once
+     * @param nanoClock the time source, in nanoseconds
+     */
+    RateLimiter(int limit, Duration period, int maxKeys, LongSupplier nanoClock) {
+        if (limit <= 0 || maxKeys <= 0 || period == null || period.isNegative() || period.isZero()) {
+            securityLogger.error("Rate limit, period and key count must be positive");
+            throw new IllegalArgumentException("Rate limit, period and key count must be positive");
+        }
+        this.nanoClock = nanoClock;
+        this.intervalNanos = Math.max(1, period.toNanos() / limit);
+        this.toleranceNanos = intervalNanos * (limit - 1);
+        this.buckets = Caffeine.newBuilder()
+                               .maximumSize(maxKeys)
+                               .expireAfterAccess(period)
+                               .ticker(nanoClock::getAsLong)
+                               .build();
+    }
+
+    /**
+     * Takes one call from a key's allowance if any is left.
+     *
+     * @param key the key calls are counted against, such as a client address
+     * @return 0 if the call is allowed, otherwise how many nanoseconds until the key may call again
+     */
+    public long tryAcquire(String key) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = arrival.get();
+            // A bucket that has refilled completely starts again from now
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the approximate number of keys being tracked.
+     * @return The estimated number of buckets held.
+     */
+    public long getSize() {
+        return buckets.estimatedSize();
+    }
+}
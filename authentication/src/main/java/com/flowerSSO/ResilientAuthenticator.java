@@ -0,0 +1,295 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resilience decorator for an Authenticator backed by a remote service.
+ * <p>
+ * Every verification is bounded by a deadline, and a {@link CircuitBreaker} makes
+ * callers fail fast while the service is failing or slow, so that a struggling
+ * authentication server cannot tie up request threads. Optionally, a verification
+ * that has not completed after a hedge delay (typically the service's p95 latency)
+ * is raced against a second request, and the first answer wins. A request that
+ * fails because of the service is also retried once through the same hedge.
+ * <p>
+ * Only {@link AuthenticationServiceException}s and deadline overruns count as
+ * failures; a token the service rejects is a successful call as far as the
+ * breaker is concerned.
+ */
+public class ResilientAuthenticator implements Authenticator {
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+
+    private final Authenticator delegate;
+    private final CircuitBreaker breaker;
+    private final long deadlineNanos;
+    private final long hedgeDelayNanos;
+
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * Constructs a resilient authenticator.
+     *
+     * @param delegate the authenticator that contacts the service
+     * @param breaker the circuit breaker guarding the service
+     * @param deadline the maximum time a verification may take
+     * @param hedgeDelay the delay after which a second request is sent, or zero to disable hedging
+     */
+    public ResilientAuthenticator(Authenticator delegate, CircuitBreaker breaker, Duration deadline, Duration hedgeDelay) {
+        if (delegate == null || breaker == null) {
+            throw new IllegalArgumentException("Delegate authenticator and circuit breaker cannot be null");
+        }
+        if (deadline == null || hedgeDelay == null || deadline.isNegative() || deadline.isZero() || hedgeDelay.isNegative()) {
+            throw new IllegalArgumentException("Deadline must be positive and hedge delay non-negative");
+        }
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.deadlineNanos = deadline.toNanos();
+        this.hedgeDelayNanos = hedgeDelay.toNanos();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Blocks for at most the deadline.
+     */
+    @Override
+    public Credentials authenticate(Token token) {
+        try {
+            return authenticateAsync(token).join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AuthenticationServiceException("Error contacting authentication server.", cause);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Fails immediately with an {@link AuthenticationServiceException} while the
+     * circuit breaker is open.
+     */
+    @Override
+    public CompletableFuture<Credentials> authenticateAsync(Token token) {
+        if (token == null) {
+            logger.error("Null token provided: cannot authenticate.");
+            return CompletableFuture.failedFuture(new AuthenticationException("Null token provided: cannot authenticate."));
+        }
+        if (!breaker.tryAcquire()) {
+            // Not logged per request: the breaker logs its state changes and counts rejections
+            return CompletableFuture.failedFuture(new AuthenticationServiceException("Authentication server is unavailable."));
+        }
+        long start = System.nanoTime();
+        return new HedgedCall(token).start()
+                                    .orTimeout(deadlineNanos, TimeUnit.NANOSECONDS)
+                                    .handle((credentials, error) -> {
+                                        long duration = System.nanoTime() - start;
+                                        if (error == null) {
+                                            breaker.record(false, duration);
+                                            return credentials;
+                                        }
+                                        Throwable cause = unwrap(error);
+                                        breaker.record(isServiceFailure(cause), duration);
+                                        throw toAuthenticationException(cause);
+                                    });
+    }
+
+    /**
+     * Gets the current state of the circuit breaker.
+     * @return The breaker state.
+     */
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    /**
+     * Gets the number of times the circuit breaker has opened.
+     * @return The trip count.
+     */
+    public long getTripCount() {
+        return breaker.getTripCount();
+    }
+
+    /**
+     * Gets the number of verifications rejected because the circuit breaker was open.
+     * @return The fast-failed verification count.
+     */
+    public long getRejectedCount() {
+        return breaker.getRejectedCount();
+    }
+
+    /**
+     * Gets the number of verifications that overran the deadline.
+     * @return The timeout count.
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Gets the number of hedged requests sent.
+     * @return The hedge count.
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Closes the wrapped authenticator.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Determines whether a failure should count against the service.
+     *
+     * @param cause the failure
+     * @return true for service errors and deadline overruns, false for rejected tokens
+     */
+    private static boolean isServiceFailure(Throwable cause) {
+        return cause instanceof AuthenticationServiceException || !(cause instanceof AuthenticationException);
+    }
+
+    /**
+     * Converts the failure of a verification into an AuthenticationException.
+     *
+     * @param cause the failure
+     * @return the exception to complete the verification with
+     */
+    private AuthenticationException toAuthenticationException(Throwable cause) {
+        if (cause instanceof AuthenticationException authenticationException) {
+            return authenticationException;
+        }
+        if (cause instanceof TimeoutException) {
+            timeouts.increment();
+            logger.error("Authentication server did not respond before the deadline.");
+            return new AuthenticationServiceException("Timed out waiting for authentication server.", cause);
+        }
+        logger.error("Error contacting authentication server.");
+        return new AuthenticationServiceException("Error contacting authentication server.", cause);
+    }
+
+    /**
+     * Strips the CompletionException wrapper added by dependent stages.
+     *
+     * @param error the failure
+     * @return the underlying cause
+     */
+    private static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+
+    /**
+     * A single verification, made of a primary request and at most one hedged request.
+     * The first success completes the verification; it fails once every request sent has failed.
+     */
+    private final class HedgedCall {
+
+        private final Token token;
+        private final CompletableFuture<Credentials> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean hedged = new AtomicBoolean(hedgeDelayNanos == 0);
+
+        HedgedCall(Token token) {
+            this.token = token;
+        }
+
+        /**
+         * Sends the primary request and schedules the hedge.
+         *
+         * @return the future completed with the outcome of the verification
+         */
+        CompletableFuture<Credentials> start() {
+            send();
+            if (!hedged.get()) {
+                CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(this::hedge);
+            }
+            return result;
+        }
+
+        /**
+         * Sends the hedged request, unless the verification is over or a hedge was already sent.
+         *
+         * @return true if a hedged request was sent
+         */
+        private boolean hedge() {
+            if (result.isDone() || !hedged.compareAndSet(false, true)) {
+                return false;
+            }
+            pending.incrementAndGet();
+            hedges.increment();
+            logger.debug("Sending hedged request to authentication server.");
+            send();
+            return true;
+        }
+
+        /**
+         * Sends one request to the delegate.
+         */
+        private void send() {
+            CompletableFuture<Credentials> attempt;
+            try {
+                attempt = delegate.authenticateAsync(token);
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+            attempt.whenComplete(this::onOutcome);
+        }
+
+        /**
+         * Handles the outcome of one request.
+         *
+         * @param credentials the credentials, if the request succeeded
+         * @param error the failure, if the request failed
+         */
+        private void onOutcome(Credentials credentials, Throwable error) {
+            if (error == null) {
+                result.complete(credentials);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (!isServiceFailure(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            hedge();
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+}
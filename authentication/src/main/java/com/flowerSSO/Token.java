@@ -21,36 +21,80 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * Represents a JSON Web Token.
  * <p>
  * This class provides formatting validation for JWTs prior to sending to
- * the Authentication Server.
+ * the Authentication Server. A Token is an immutable value: it is validated
+ * once, when it is created, and can be shared freely between threads. Its claims
+ * are decoded at most once, the first time they are needed.
  * 
  * @author Ted Bjurlin
  * @version 1.0
  */
-public class Token {
+public final class Token {
 
     /**
      * A reference to the security logger to log if token validation fails.
      */
-    Logger logger = LoggerFactory.getSecurityLogger();
+    private static final Logger logger = LoggerFactory.getSecurityLogger();
 
     /**
-     * The sanitizer used to prevent XSS attacks.
+     * The token lengths accepted when no format is given: those of the full claim profile.
      */
-    XssSanitizer sanitizer = new XssSanitizerImpl();
+    private static final TokenFormat DEFAULT_FORMAT = TokenFormat.of(TokenClaimProfile.FULL);
+
+    private static final AtomicReferenceFieldUpdater<Token, TokenClaims> CLAIMS =
+            AtomicReferenceFieldUpdater.newUpdater(Token.class, TokenClaims.class, "claims");
 
     /**
      * Represents the validated token string provided by the user.
      */
-    private String token;
+    private final String token;
+
+    /**
+     * The SHA-256 digest of the token, computed the first time it is needed.
+     */
+    private volatile String digest;
 
     /**
-     * Constructs a new Token object with default values.
+     * The token's claims, once decoded or verified.
      */
-    public Token() {}
+    private volatile TokenClaims claims;
+
+    /**
+     * Constructs a Token validated against the lengths of the full claim profile.
+     * 
+     * @param token the compact JWT
+     * @throws IllegalArgumentException when validation fails
+     */
+    public Token(String token) {
+        this(token, DEFAULT_FORMAT);
+    }
+
+    /**
+     * Constructs a Token validated against the given token format.
+     * <p>
+     * The token is validated according to the following rules:
+     * The token must be within the lengths of the token format, for instance between
+     * 170 and 1024 characters for tokens minted with the full claim profile. The bounds
+     * leave room for the key ID carried by tokens signed with a published key. The token
+     * must consist of three non-empty base64url segments (header, payload and signature)
+     * separated by dots.
+     * 
+     * @param token the compact JWT
+     * @param format the token lengths accepted
+     * @throws IllegalArgumentException when validation fails
+     */
+    public Token(String token, TokenFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Token format cannot be null");
+        }
+        validate(token, format);
+        this.token = token;
+    }
 
     /**
      * Gets the token.
@@ -62,31 +106,126 @@ public class Token {
     }
 
     /**
-     * Sets the token.
+     * Gets the SHA-256 digest of the token, which Authenticator decorators use to
+     * remember the token between requests. The digest is computed once per Token and
+     * shared by every decorator the token passes through.
+     * 
+     * @return the unpadded base64url digest of the token
+     */
+    String getDigest() {
+        String computed = digest;
+        if (computed == null) {
+            computed = TokenDigest.of(token);
+            digest = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Gets the token's claims, decoding the payload the first time they are needed.
      * <p>
-     * Sanitizes the token and validates according to the following rules:
-     * The token must be between 250 and 400 characters.
+     * The claims are unverified unless an Authenticator has checked the token's
+     * signature in-process, see {@link #isVerified()}.
      * 
-     * @param token the token to be sanitized and validated
-     * @throws IllegalArgumentException when validation fails
+     * @return the token's claims
+     * @throws IllegalArgumentException if the payload is not a JSON object
      */
-    public void setToken(String token) throws IllegalArgumentException {
+    public TokenClaims getClaims() {
+        TokenClaims decoded = claims;
+        if (decoded == null) {
+            // Never replace claims verified in the meantime with unverified ones
+            CLAIMS.compareAndSet(this, null, TokenClaims.decode(token));
+            decoded = claims;
+        }
+        return decoded;
+    }
 
+    /**
+     * Gets whether the token's signature has been checked in-process, so that its
+     * claims can be read as the user's identity without authenticating it again.
+     * 
+     * @return true if the token's claims are verified
+     */
+    public boolean isVerified() {
+        TokenClaims current = claims;
+        return current != null && current.isVerified();
+    }
+
+    /**
+     * Records the claims of this token once its signature has been checked.
+     * 
+     * @param verifiedClaims the verified claims
+     */
+    void setVerifiedClaims(TokenClaims verifiedClaims) {
+        claims = verifiedClaims;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Token that && token.equals(that.token);
+    }
+
+    @Override
+    public int hashCode() {
+        return token.hashCode();
+    }
+
+    /**
+     * Checks a token's length and compact JWS structure in a single pass over its
+     * characters, without allocating.
+     * 
+     * @param token the compact JWT
+     * @param format the token lengths accepted
+     * @throws IllegalArgumentException when validation fails
+     */
+    private static void validate(String token, TokenFormat format) {
         if (token == null) {
             logger.error("No authentication token received.");
             throw new IllegalArgumentException("No authentication token received.");
         }
 
-        String safeToken = sanitizer.sanitizeInput(token);
-
-        if (safeToken.length() < 250) {
+        int length = token.length();
+        if (length < format.getMinTokenLength()) {
             logger.error("Authentication token received is too short.");
             throw new IllegalArgumentException("JWT token is too short.");
-        } else if (safeToken.length() > 400) {
+        } else if (length > format.getMaxTokenLength()) {
             logger.error("Authentication token received is too long.");
             throw new IllegalArgumentException("JWT token is too long.");
         }
 
-        this.token = safeToken;
-    }    
+        if (!isCompactJws(token)) {
+            logger.error("Authentication token received is malformed.");
+            throw new IllegalArgumentException("JWT token is malformed.");
+        }
+    }
+
+    /**
+     * Checks that a token is three non-empty base64url segments separated by dots.
+     * 
+     * @param token the compact JWT
+     * @return whether the token is structurally a compact JWS
+     */
+    private static boolean isCompactJws(String token) {
+        int length = token.length();
+        int segments = 0;
+        int segmentStart = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? token.charAt(i) : '.';
+            if (c == '.') {
+                // Unpadded base64url never leaves a single character in the last group
+                int segmentLength = i - segmentStart;
+                if (++segments > 3 || segmentLength == 0 || segmentLength % 4 == 1) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            } else if (!isBase64Url(c)) {
+                return false;
+            }
+        }
+        return segments == 3;
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
 }
@@ -0,0 +1,253 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The claims carried by a JSON Web Token: the user's identity, the token's
+ * lifetime and whichever profile fields its claim profile includes.
+ * <p>
+ * Claims decoded straight from a token's payload are unverified and only good
+ * for bounding how long state about the token is kept. Claims whose signature was
+ * checked in-process are marked verified, and can be trusted as the user's
+ * identity without authenticating the token again.
+ */
+public final class TokenClaims {
+
+    private static final Logger logger = LoggerFactory.getSecurityLogger();
+
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    private final Integer id;
+    private final String subject;
+    private final String issuer;
+    private final Long issuedAt;
+    private final Long expiresAt;
+    private final String firstName;
+    private final String lastName;
+    private final String location;
+    private final String department;
+    private final String title;
+    private final boolean verified;
+
+    private TokenClaims(Integer id, String subject, String issuer, Long issuedAt, Long expiresAt,
+                        String firstName, String lastName, String location, String department,
+                        String title, boolean verified) {
+        this.id = id;
+        this.subject = subject;
+        this.issuer = issuer;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.location = location;
+        this.department = department;
+        this.title = title;
+        this.verified = verified;
+    }
+
+    /**
+     * Decodes the claims of a token's payload without verifying its signature.
+     *
+     * @param jwt the compact JWT
+     * @return the unverified claims
+     * @throws IllegalArgumentException if the payload is not a base64url-encoded JSON object
+     */
+    static TokenClaims decode(String jwt) {
+        int payloadStart = jwt.indexOf('.') + 1;
+        int payloadEnd = jwt.indexOf('.', payloadStart);
+        JsonNode payload;
+        try {
+            payload = READER.readTree(Base64.getUrlDecoder().decode(jwt.substring(payloadStart, payloadEnd)));
+        } catch (IllegalArgumentException | IOException e) {
+            payload = null;
+        }
+        if (payload == null || !payload.isObject()) {
+            logger.error("Authentication token payload is not a JSON object.");
+            throw new IllegalArgumentException("JWT token payload is not a JSON object.");
+        }
+        JsonNode id = payload.path("id");
+        return new TokenClaims(id.isIntegralNumber() && id.canConvertToInt() ? id.intValue() : null,
+                               text(payload, "sub"), text(payload, "iss"),
+                               number(payload, "iat"), number(payload, "exp"),
+                               text(payload, "first_name"), text(payload, "last_name"),
+                               text(payload, "location"), text(payload, "department"),
+                               text(payload, "title"), false);
+    }
+
+    /**
+     * Wraps claims whose signature, issuer and expiry have been verified.
+     *
+     * @param claims the claims parsed and verified by jjwt
+     * @return the verified claims
+     * @throws io.jsonwebtoken.RequiredTypeException if a profile field is not a string
+     */
+    static TokenClaims verified(Claims claims) {
+        return new TokenClaims(claims.get("id") instanceof Number id ? id.intValue() : null,
+                               claims.getSubject(), claims.getIssuer(),
+                               epochSeconds(claims.getIssuedAt()), epochSeconds(claims.getExpiration()),
+                               claims.get("first_name", String.class), claims.get("last_name", String.class),
+                               claims.get("location", String.class), claims.get("department", String.class),
+                               claims.get("title", String.class), true);
+    }
+
+    /**
+     * Builds the user's credentials from the claims, leaving fields the token does not carry at their defaults.
+     *
+     * @return the user's credentials
+     * @throws IllegalArgumentException if the token has no user ID or a claim fails validation
+     */
+    public Credentials toCredentials() {
+        if (id == null) {
+            throw new IllegalArgumentException("Token has no user id.");
+        }
+        Credentials credentials = new Credentials();
+        credentials.setId(id);
+        if (firstName != null) {
+            credentials.setFirstName(firstName);
+        }
+        if (lastName != null) {
+            credentials.setLastName(lastName);
+        }
+        if (location != null) {
+            credentials.setLocation(location);
+        }
+        if (department != null) {
+            credentials.setDepartment(department);
+        }
+        if (title != null) {
+            credentials.setTitle(title);
+        }
+        return credentials;
+    }
+
+    /**
+     * Gets whether the token's signature was checked in-process.
+     * @return True if the claims can be trusted.
+     */
+    public boolean isVerified() {
+        return verified;
+    }
+
+    /**
+     * Gets the user's ID.
+     * @return The {@code id} claim, or null if the token carries none.
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Gets the subject, the user's full name.
+     * @return The {@code sub} claim, or null if the token carries none.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the issuer.
+     * @return The {@code iss} claim, or null if the token carries none.
+     */
+    public String getIssuer() {
+        return issuer;
+    }
+
+    /**
+     * Gets when the token was issued.
+     * @return The {@code iat} claim in seconds since the epoch, or null if the token carries none.
+     */
+    public Long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * Gets when the token expires.
+     * @return The {@code exp} claim in seconds since the epoch, or null if the token carries none.
+     */
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Gets the user's first name.
+     * @return The {@code first_name} claim, or null if the token carries none.
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Gets the user's last name.
+     * @return The {@code last_name} claim, or null if the token carries none.
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Gets the user's location.
+     * @return The {@code location} claim, or null if the token carries none.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the user's department.
+     * @return The {@code department} claim, or null if the token carries none.
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    /**
+     * Gets the user's title.
+     * @return The {@code title} claim, or null if the token carries none.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    private static String text(JsonNode payload, String name) {
+        JsonNode value = payload.get(name);
+        return value != null && value.isTextual() ? value.textValue() : null;
+    }
+
+    private static Long number(JsonNode payload, String name) {
+        JsonNode value = payload.get(name);
+        return value != null && value.canConvertToLong() ? value.longValue() : null;
+    }
+
+    private static Long epochSeconds(Date date) {
+        return date == null ? null : date.getTime() / 1000;
+    }
+}
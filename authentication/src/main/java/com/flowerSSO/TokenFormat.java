@@ -0,0 +1,93 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+/**
+ * The token lengths this server accepts, checked when a Token is created.
+ * <p>
+ * When every token is minted here, the lengths are those of the configured claim
+ * profile. When tokens minted by the authentication server are accepted too, their
+ * length is not known in advance, so any token up to the usual request header limit
+ * is accepted. The format is built once at startup and passed to whoever creates Tokens.
+ */
+public final class TokenFormat {
+
+    /**
+     * The shortest token accepted when tokens minted by other servers are accepted.
+     */
+    static final int MIN_FOREIGN_TOKEN_LENGTH = 32;
+
+    /**
+     * The longest token accepted when tokens minted by other servers are accepted,
+     * the default request header size limit of most servlet containers.
+     */
+    static final int MAX_FOREIGN_TOKEN_LENGTH = 8192;
+
+    private static final TokenFormat FOREIGN = new TokenFormat(MIN_FOREIGN_TOKEN_LENGTH, MAX_FOREIGN_TOKEN_LENGTH);
+
+    private final int minTokenLength;
+
+    private final int maxTokenLength;
+
+    private TokenFormat(int minTokenLength, int maxTokenLength) {
+        this.minTokenLength = minTokenLength;
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    /**
+     * Gets the format of tokens minted by this server with the given claim profile.
+     *
+     * @param claimProfile the claim profile tokens are minted with
+     * @return the format accepting the token lengths of that profile
+     */
+    public static TokenFormat of(TokenClaimProfile claimProfile) {
+        if (claimProfile == null) {
+            throw new IllegalArgumentException("Claim profile cannot be null");
+        }
+        return new TokenFormat(claimProfile.getMinTokenLength(), claimProfile.getMaxTokenLength());
+    }
+
+    /**
+     * Gets the format used when tokens minted by other servers are accepted.
+     *
+     * @return the format accepting any token length up to the foreign token bound
+     */
+    public static TokenFormat foreign() {
+        return FOREIGN;
+    }
+
+    /**
+     * Gets the length of the shortest token accepted.
+     * @return The minimum token length in characters.
+     */
+    public int getMinTokenLength() {
+        return minTokenLength;
+    }
+
+    /**
+     * Gets the length of the longest token accepted.
+     * @return The maximum token length in characters.
+     */
+    public int getMaxTokenLength() {
+        return maxTokenLength;
+    }
+}
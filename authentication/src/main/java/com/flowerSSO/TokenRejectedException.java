@@ -0,0 +1,47 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+/**
+ * Custom runtime exception to be thrown whenever a token is
+ * definitively rejected: its signature does not verify, it has
+ * expired or been revoked, or the authentication server refused
+ * it as unauthorized. Retrying the same token cannot succeed.
+ */
+public class TokenRejectedException extends AuthenticationException {
+    /**
+     * Constructs a new TokenRejectedException with the specified detail message.
+     * @param message the detail message
+     */
+    public TokenRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new TokenRejectedException with the specified detail message and cause.
+     * @param message the detail message
+     * @param cause the cause of the exception
+     */
+    public TokenRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
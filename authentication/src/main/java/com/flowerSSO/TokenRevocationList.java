@@ -0,0 +1,111 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * In-process list of tokens revoked by an administrator.
+ * <p>
+ * Tokens are held by digest until they expire on their own, after which a revocation
+ * no longer matters; tokens without an {@code exp} claim are held for a configured
+ * maximum lifetime.
+ */
+public class TokenRevocationList {
+
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
+
+    private final Cache<String, Long> revoked;
+
+    private final long maxTtlNanos;
+
+    /**
+     * Constructs a revocation list.
+     *
+     * @param maxSize the maximum number of revoked tokens held
+     * @param maxTtl the maximum time a revocation is held
+     */
+    public TokenRevocationList(int maxSize, Duration maxTtl) {
+        if (maxSize <= 0 || maxTtl == null || maxTtl.isNegative() || maxTtl.isZero()) {
+            throw new IllegalArgumentException("Revocation list size and lifetime must be positive");
+        }
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.revoked = Caffeine.newBuilder()
+                               .maximumSize(maxSize)
+                               .expireAfter(Expiry.<String, Long>creating((digest, ttlNanos) -> Duration.ofNanos(ttlNanos)))
+                               .removalListener((String digest, Long ttlNanos, RemovalCause cause) -> {
+                                   if (cause == RemovalCause.SIZE) {
+                                       securityLogger.warn("Revocation list full: evicted a revoked token before it expired.");
+                                   }
+                               })
+                               .build();
+    }
+
+    /**
+     * Revokes a token. Revoking an expired token has no effect.
+     *
+     * @param token the token to revoke
+     */
+    public void revoke(Token token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Cannot revoke a null token");
+        }
+        long ttlNanos = UnverifiedClaims.remainingNanos(token, maxTtlNanos);
+        if (ttlNanos > 0) {
+            revoked.put(token.getDigest(), ttlNanos);
+            securityLogger.info("Token revoked.");
+        }
+    }
+
+    /**
+     * Checks whether a token has been revoked.
+     *
+     * @param token the token to check
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(Token token) {
+        return isRevoked(token.getDigest());
+    }
+
+    /**
+     * Checks whether the token with the given digest has been revoked.
+     *
+     * @param digest the token digest
+     * @return true if the token is revoked
+     */
+    boolean isRevoked(String digest) {
+        return revoked.getIfPresent(digest) != null;
+    }
+
+    /**
+     * Gets the approximate number of revoked tokens held.
+     * @return The estimated number of revocations.
+     */
+    public long getSize() {
+        return revoked.estimatedSize();
+    }
+}
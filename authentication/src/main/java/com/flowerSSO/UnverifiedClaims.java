@@ -0,0 +1,66 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads claims from a JSON Web Token without verifying it.
+ * <p>
+ * Only for bounding how long state about a token is kept; never for deciding
+ * whether a token is valid. The claims are decoded once per Token and shared
+ * with everything else that reads them.
+ */
+final class UnverifiedClaims {
+
+    private UnverifiedClaims() {}
+
+    /**
+     * Reads the {@code exp} claim from a token.
+     *
+     * @param token the token
+     * @return the expiry in seconds since the epoch, or null if the token carries none or cannot be read
+     */
+    static Long expiryEpochSeconds(Token token) {
+        try {
+            return token.getClaims().getExpiresAt();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes how long state about a token may be kept: until the token expires, but no longer than a maximum.
+     *
+     * @param token the token
+     * @param maxNanos the maximum lifetime in nanoseconds
+     * @return the lifetime in nanoseconds, non-positive if the token has already expired
+     */
+    static long remainingNanos(Token token, long maxNanos) {
+        Long expiry = expiryEpochSeconds(token);
+        if (expiry == null) {
+            return maxNanos;
+        }
+        long remainingMillis = TimeUnit.SECONDS.toMillis(expiry) - System.currentTimeMillis();
+        return Math.min(maxNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+}
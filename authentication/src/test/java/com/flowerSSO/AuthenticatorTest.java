@@ -22,13 +22,26 @@ package com.flowerSSO;
 */
 
 
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.mockserver.integration.ClientAndServer;
 import org.mockserver.client.MockServerClient;
 import static org.mockserver.integration.ClientAndServer.startClientAndServer;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -67,6 +80,40 @@ public class AuthenticatorTest {
         System.out.println(e.getMessage());
     }
 
+    @Test
+    void AuthenticateAllAsyncTestDeduplicatesTokens() throws Exception {
+        AtomicInteger verifications = new AtomicInteger();
+        Authenticator counting = token -> {
+            verifications.incrementAndGet();
+            Credentials credentials = new Credentials();
+            credentials.setId(token.getToken().length());
+            return credentials;
+        };
+        Token first = batchToken("a");
+        Token second = batchToken("bb");
+        Token repeat = batchToken("a");
+
+        List<CompletableFuture<Credentials>> results = counting.authenticateAllAsync(List.of(first, second, repeat));
+
+        assertEquals(3, results.size());
+        assertEquals(2, verifications.get());
+        assertEquals(results.get(0).get().getId(), results.get(2).get().getId());
+        assertNotEquals(results.get(0).get().getId(), results.get(1).get().getId());
+    }
+
+    private static Token batchToken(String payload) {
+        // Two extra copies keep the segment a possible base64url length for one- and two-character payloads
+        return new Token("eyJhbGciOiJIUzI1NiJ9." + payload.repeat(200 / payload.length() + 2) + "." + "s".repeat(43));
+    }
+
+    @Test
+    void TokenJsonTestMatchesFormattedBody() throws Exception {
+        Token token = batchToken("a");
+
+        assertEquals(String.format("{\"token\": \"%s\"}", token.getToken()),
+                     new String(AuthenticatorImpl.tokenJson(token), StandardCharsets.US_ASCII));
+    }
+
     @Nested
     class AuthenticatorAuthenticateMethodTest {
 
@@ -80,8 +127,7 @@ public class AuthenticatorTest {
     
         @BeforeEach
         void setup() {
-            testToken = new Token();
-            testToken.setToken(testTokenStr);
+            testToken = new Token(testTokenStr);
 
             mockAuthServer = startClientAndServer(1080);
 
@@ -123,12 +169,42 @@ public class AuthenticatorTest {
 
             auth = new AuthenticatorImpl(mockAuthServerURL);
 
-            AuthenticationException e = assertThrows(AuthenticationException.class, 
+            AuthenticationException e = assertThrows(AuthenticationServiceException.class, 
                       () -> auth.authenticate(testToken));
 
             System.out.println(e.getMessage());
         }
 
+        @Test
+        void AuthenticateTestUnauthorizedResponseCode() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(401)
+                                );
+
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            assertThrows(TokenRejectedException.class, () -> auth.authenticate(testToken));
+        }
+
+        @Test
+        void AuthenticateTestThrottledResponseCode() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(429)
+                                );
+
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(testToken));
+        }
+
         @Test
         void AuthenticateTestNullToken() throws Exception {
             mockServerClient.when(request()
@@ -168,6 +244,151 @@ public class AuthenticatorTest {
             System.out.println(e.getMessage());
         }
 
+
+        @Test
+        void AuthenticateTestServerTimeout() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(201)
+                                    .withBody(managerCredJSONStr)
+                                    .withDelay(TimeUnit.SECONDS, 2)
+                                );
+
+            HttpClient client = AuthenticatorImpl.newHttpClient(Duration.ofSeconds(1));
+            auth = new AuthenticatorImpl(mockAuthServerURL, client, Duration.ofMillis(250));
+
+            AuthenticationException e = assertThrows(AuthenticationException.class, 
+                      () -> auth.authenticate(testToken));
+
+            System.out.println(e.getMessage());
+        }
+
+        @Test
+        void AuthenticateTestConnectionReused() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                    .withBody("{\"token\": \""+ testToken.getToken() +"\"}")
+                                )
+                        .respond(response()
+                                    .withStatusCode(201)
+                                    .withBody(managerCredJSONStr)
+                                );
+
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            assertNotEquals(auth.authenticate(testToken), null);
+            assertNotEquals(auth.authenticate(testToken), null);
+        }
+
+        @Test
+        void AuthenticateAsyncTestGood() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                    .withBody("{\"token\": \""+ testToken.getToken() +"\"}")
+                                )
+                        .respond(response()
+                                    .withStatusCode(201)
+                                    .withBody(managerCredJSONStr)
+                                );
+
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            assertNotEquals(auth.authenticateAsync(testToken).get(5, TimeUnit.SECONDS), null);
+        }
+
+        @Test
+        void AuthenticateAsyncTestBadServerResponseCode() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(404)
+                                );
+
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            ExecutionException e = assertThrows(ExecutionException.class, 
+                      () -> auth.authenticateAsync(testToken).get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(AuthenticationServiceException.class, e.getCause());
+            System.out.println(e.getCause().getMessage());
+        }
+
+        @Test
+        void AuthenticateAsyncTestServerTimeout() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(201)
+                                    .withBody(managerCredJSONStr)
+                                    .withDelay(TimeUnit.SECONDS, 2)
+                                );
+
+            HttpClient client = AuthenticatorImpl.newHttpClient(Duration.ofSeconds(1));
+            auth = new AuthenticatorImpl(mockAuthServerURL, client, Duration.ofMillis(250));
+
+            ExecutionException e = assertThrows(ExecutionException.class, 
+                      () -> auth.authenticateAsync(testToken).get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(AuthenticationException.class, e.getCause());
+            System.out.println(e.getCause().getMessage());
+        }
+
+        @Test
+        void AuthenticateAsyncTestNullToken() throws Exception {
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            assertTrue(auth.authenticateAsync(null).isCompletedExceptionally());
+        }
+
+        @Test
+        void AuthenticateTestServerError() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("POST")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(503)
+                                );
+
+            auth = new AuthenticatorImpl(mockAuthServerURL);
+
+            assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(testToken));
+        }
+
+        @Test
+        void ProbeTestServerUp() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("GET")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(405)
+                                );
+
+            assertTrue(new AuthenticatorImpl(mockAuthServerURL).probe());
+        }
+
+        @Test
+        void ProbeTestServerError() throws Exception {
+            mockServerClient.when(request()
+                                    .withMethod("GET")
+                                    .withPath(mockAuthServerURLPath)
+                                )
+                        .respond(response()
+                                    .withStatusCode(500)
+                                );
+
+            assertFalse(new AuthenticatorImpl(mockAuthServerURL).probe());
+        }
     }
 
 }
@@ -0,0 +1,173 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachingAuthenticatorTest {
+
+    private Authenticator delegate;
+    private CachingAuthenticator auth;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(Authenticator.class);
+        when(delegate.authenticate(any())).thenAnswer(invocation -> testCredentials());
+        auth = new CachingAuthenticator(delegate, 100, Duration.ofMinutes(5), Runnable::run);
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        Token token = tokenExpiringIn(3600, 1);
+
+        Credentials first = auth.authenticate(token);
+        Credentials second = auth.authenticate(token);
+
+        verify(delegate, times(1)).authenticate(any());
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, auth.getHitCount());
+        assertEquals(1, auth.getMissCount());
+    }
+
+    @Test
+    void cachedCredentialsAreCopied() {
+        Token token = tokenExpiringIn(3600, 1);
+
+        Credentials first = auth.authenticate(token);
+        Credentials second = auth.authenticate(token);
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void expiredTokenIsNotCached() {
+        Token token = tokenExpiringIn(-60, 1);
+
+        auth.authenticate(token);
+        auth.authenticate(token);
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void invalidatedTokenIsVerifiedAgain() {
+        Token token = tokenExpiringIn(3600, 1);
+
+        auth.authenticate(token);
+        auth.invalidate(token);
+        auth.authenticate(token);
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void cacheIsBoundedBySize() {
+        auth = new CachingAuthenticator(delegate, 1, Duration.ofMinutes(5), Runnable::run);
+
+        auth.authenticate(tokenExpiringIn(3600, 1));
+        auth.authenticate(tokenExpiringIn(3600, 2));
+        auth.cleanUp();
+
+        assertEquals(1, auth.getSize());
+        assertTrue(auth.getEvictionCount() >= 1);
+    }
+
+    @Test
+    void rejectedTokenIsNotCached() {
+        when(delegate.authenticate(any())).thenThrow(new AuthenticationException("Rejected"));
+        Token token = tokenExpiringIn(3600, 1);
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void asyncVerificationPopulatesCache() throws Exception {
+        when(delegate.authenticateAsync(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(testCredentials()));
+        Token token = tokenExpiringIn(3600, 1);
+
+        Credentials first = auth.authenticateAsync(token).get();
+        Credentials second = auth.authenticate(token);
+        Credentials third = auth.authenticateAsync(token).get();
+
+        verify(delegate, times(1)).authenticateAsync(any());
+        verify(delegate, never()).authenticate(any());
+        assertEquals(first.getId(), second.getId());
+        assertEquals(first.getId(), third.getId());
+        assertEquals(2, auth.getHitCount());
+    }
+
+    @Test
+    void asyncRejectedTokenIsNotCached() {
+        when(delegate.authenticateAsync(any())).thenAnswer(invocation -> CompletableFuture.failedFuture(new AuthenticationException("Rejected")));
+        Token token = tokenExpiringIn(3600, 1);
+
+        assertTrue(auth.authenticateAsync(token).isCompletedExceptionally());
+        assertTrue(auth.authenticateAsync(token).isCompletedExceptionally());
+
+        verify(delegate, times(2)).authenticateAsync(any());
+    }
+
+    @Test
+    void nullTokenIsRejected() {
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(null));
+    }
+
+    private static Credentials testCredentials() {
+        Credentials credentials = new Credentials();
+        credentials.setId(10);
+        credentials.setFirstName("John");
+        credentials.setLastName("Smith");
+        return credentials;
+    }
+
+    private static Token tokenExpiringIn(long seconds, int id) {
+        long exp = System.currentTimeMillis() / 1000 + seconds;
+        String header = encode("{\"alg\":\"HS256\"}");
+        String payload = encode("{\"id\":" + id + ",\"exp\":" + exp + ",\"sub\":\"" + "x".repeat(160) + "\"}");
+        Token token = new Token(header + "." + payload + "." + "s".repeat(43));
+        return token;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private AtomicLong now;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setup() {
+        now = new AtomicLong();
+        breaker = new CircuitBreaker(10, 4, 50, Duration.ofSeconds(1), 80, Duration.ofSeconds(5), 2, now::get);
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void tripsOnFailureRate() {
+        call(false, FAST);
+        call(true, FAST);
+        call(false, FAST);
+        call(true, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getTripCount());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    void tripsOnSlowCallRate() {
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, SLOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        for (int i = 0; i < 4; i++) {
+            call(false, FAST);
+        }
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+        for (int i = 0; i < 10; i++) {
+            call(false, FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRatePercent());
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCalls() {
+        trip();
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.record(false, FAST);
+        breaker.record(false, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void reopensAfterFailedTrialCall() {
+        trip();
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertTrue(breaker.tryAcquire());
+        breaker.record(true, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTripCount());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CircuitBreaker(0, 1, 50, Duration.ZERO, 50, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CircuitBreaker(10, 1, 101, Duration.ZERO, 50, Duration.ZERO, 1));
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean failure, long durationNanos) {
+        assertTrue(breaker.tryAcquire());
+        breaker.record(failure, durationNanos);
+    }
+}
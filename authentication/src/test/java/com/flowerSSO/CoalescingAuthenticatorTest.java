@@ -0,0 +1,205 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CoalescingAuthenticatorTest {
+
+    private Authenticator delegate;
+    private CoalescingAuthenticator auth;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(Authenticator.class);
+        auth = new CoalescingAuthenticator(delegate);
+    }
+
+    @Test
+    void concurrentAsyncCallersShareOneVerification() throws Exception {
+        CompletableFuture<Credentials> pending = new CompletableFuture<>();
+        when(delegate.authenticateAsync(any())).thenReturn(pending);
+
+        CompletableFuture<Credentials> first = auth.authenticateAsync(token("a"));
+        CompletableFuture<Credentials> second = auth.authenticateAsync(token("a"));
+        CompletableFuture<Credentials> third = auth.authenticateAsync(token("a"));
+        pending.complete(testCredentials());
+
+        verify(delegate, times(1)).authenticateAsync(any());
+        assertEquals(10, first.get().getId());
+        assertEquals(10, second.get().getId());
+        assertNotSame(first.get(), second.get());
+        assertEquals(3, auth.getRequestCount());
+        assertEquals(1, auth.getFlightCount());
+        assertEquals(2, auth.getCoalescedCount());
+        assertEquals(3.0, auth.getFanIn());
+        assertEquals(2.0 / 3.0, auth.getDedupRatio());
+        assertEquals(0, auth.getInFlightCount());
+        assertTrue(third.isDone());
+    }
+
+    @Test
+    void differentTokensAreNotCoalesced() {
+        when(delegate.authenticateAsync(any())).thenAnswer(invocation -> new CompletableFuture<>());
+
+        auth.authenticateAsync(token("a"));
+        auth.authenticateAsync(token("d"));
+
+        verify(delegate, times(2)).authenticateAsync(any());
+        assertEquals(2, auth.getInFlightCount());
+    }
+
+    @Test
+    void completedVerificationIsNotRemembered() {
+        when(delegate.authenticateAsync(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(testCredentials()));
+
+        auth.authenticateAsync(token("a")).join();
+        auth.authenticateAsync(token("a")).join();
+
+        verify(delegate, times(2)).authenticateAsync(any());
+        assertEquals(0, auth.getCoalescedCount());
+    }
+
+    @Test
+    void failureIsSharedWithWaitingCallers() {
+        CompletableFuture<Credentials> pending = new CompletableFuture<>();
+        when(delegate.authenticateAsync(any())).thenReturn(pending);
+
+        CompletableFuture<Credentials> first = auth.authenticateAsync(token("a"));
+        CompletableFuture<Credentials> second = auth.authenticateAsync(token("a"));
+        pending.completeExceptionally(new AuthenticationException("Rejected"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> second.get());
+        assertTrue(e.getCause() instanceof AuthenticationException);
+        assertTrue(first.isCompletedExceptionally());
+    }
+
+    @Test
+    void concurrentBlockingCallersShareOneVerification() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return testCredentials();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Credentials> leader = executor.submit(() -> auth.authenticate(token("a")));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<Credentials> follower = executor.submit(() -> auth.authenticate(token("a")));
+            while (auth.getCoalescedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals(10, leader.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(10, follower.get(5, TimeUnit.SECONDS).getId());
+            verify(delegate, times(1)).authenticate(any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void blockingFailureIsRethrown() {
+        when(delegate.authenticate(any())).thenThrow(new AuthenticationException("Rejected"));
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token("a")));
+        assertEquals(0, auth.getInFlightCount());
+    }
+
+    @Test
+    void blockingErrorReleasesWaitingCallers() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Credentials> leader = executor.submit(() -> auth.authenticate(token("a")));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<Credentials> follower = executor.submit(() -> auth.authenticate(token("a")));
+            while (auth.getCoalescedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertTrue(leaderError.getCause() instanceof StackOverflowError);
+            ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertTrue(followerError.getCause() instanceof AuthenticationException);
+            assertEquals(0, auth.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncErrorFailsTheFlight() {
+        when(delegate.authenticateAsync(any())).thenThrow(new StackOverflowError());
+
+        assertTrue(auth.authenticateAsync(token("a")).isCompletedExceptionally());
+        assertEquals(0, auth.getInFlightCount());
+    }
+
+    @Test
+    void nullTokenIsRejected() {
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(null));
+        assertTrue(auth.authenticateAsync(null).isCompletedExceptionally());
+    }
+
+    private static Credentials testCredentials() {
+        Credentials credentials = new Credentials();
+        credentials.setId(10);
+        credentials.setFirstName("John");
+        credentials.setLastName("Smith");
+        return credentials;
+    }
+
+    private static Token token(String id) {
+        Token token = new Token("eyJhbGciOiJIUzI1NiJ9." + id.repeat(200) + "." + "s".repeat(43));
+        return token;
+    }
+}
@@ -0,0 +1,170 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DenylistAuthenticatorTest {
+
+    private Authenticator delegate;
+    private TokenRevocationList revocations;
+    private DenylistAuthenticator auth;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(Authenticator.class);
+        revocations = new TokenRevocationList(100, Duration.ofHours(1));
+        auth = new DenylistAuthenticator(delegate, revocations, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void closingClosesWholeChain() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 50, Duration.ofSeconds(5), 100, Duration.ofMinutes(1), 1);
+        Authenticator chain = new DenylistAuthenticator(
+                new CachingAuthenticator(
+                        new CoalescingAuthenticator(
+                                new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(1), Duration.ZERO)),
+                        100, Duration.ofMinutes(5)),
+                revocations, 100, Duration.ofMinutes(1));
+
+        chain.close();
+
+        verify(delegate).close();
+    }
+
+    @Test
+    void rejectedTokenIsRefusedWithoutVerification() {
+        when(delegate.authenticate(any())).thenThrow(new TokenRejectedException("Rejected"));
+        Token token = tokenExpiringIn(3600, 1);
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+
+        verify(delegate, times(1)).authenticate(any());
+        assertEquals(1, auth.getRejectedHitCount());
+        assertEquals(1, auth.getRejectedSize());
+    }
+
+    @Test
+    void serviceFailureIsNotRemembered() {
+        when(delegate.authenticate(any())).thenThrow(new AuthenticationServiceException("Down"));
+        Token token = tokenExpiringIn(3600, 1);
+
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+
+        verify(delegate, times(2)).authenticate(any());
+        assertEquals(0, auth.getRejectedHitCount());
+    }
+
+    @Test
+    void failureWithoutVerdictIsNotRemembered() {
+        when(delegate.authenticate(any())).thenThrow(new AuthenticationException("Authenticator must not return null credentials."));
+        Token token = tokenExpiringIn(3600, 1);
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+
+        verify(delegate, times(2)).authenticate(any());
+        assertEquals(0, auth.getRejectedSize());
+    }
+
+    @Test
+    void asyncRejectionIsRemembered() {
+        when(delegate.authenticateAsync(any())).thenReturn(CompletableFuture.failedFuture(new TokenRejectedException("Rejected")));
+        Token token = tokenExpiringIn(3600, 1);
+
+        assertTrue(auth.authenticateAsync(token).isCompletedExceptionally());
+        assertTrue(auth.authenticateAsync(token).isCompletedExceptionally());
+
+        verify(delegate, times(1)).authenticateAsync(any());
+    }
+
+    @Test
+    void revokedTokenIsRefused() {
+        when(delegate.authenticate(any())).thenReturn(new Credentials());
+        Token token = tokenExpiringIn(3600, 1);
+
+        auth.authenticate(token);
+        revocations.revoke(token);
+
+        AuthenticationException e = assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+        assertEquals("Token has been revoked.", e.getMessage());
+        verify(delegate, times(1)).authenticate(any());
+        assertEquals(1, auth.getRevokedHitCount());
+    }
+
+    @Test
+    void otherTokensAreUnaffected() {
+        when(delegate.authenticate(any())).thenReturn(new Credentials());
+        revocations.revoke(tokenExpiringIn(3600, 1));
+
+        auth.authenticate(tokenExpiringIn(3600, 2));
+
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void expiredTokenIsNotHeldOnRevocationList() {
+        Token token = tokenExpiringIn(-60, 1);
+
+        revocations.revoke(token);
+
+        assertFalse(revocations.isRevoked(token));
+    }
+
+    @Test
+    void nullTokenIsRejected() {
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(null));
+        assertTrue(auth.authenticateAsync(null).isCompletedExceptionally());
+        verify(delegate, never()).authenticate(any());
+    }
+
+    private static Token tokenExpiringIn(long seconds, int id) {
+        long exp = System.currentTimeMillis() / 1000 + seconds;
+        String header = encode("{\"alg\":\"HS256\"}");
+        String payload = encode("{\"id\":" + id + ",\"exp\":" + exp + ",\"sub\":\"" + "x".repeat(160) + "\"}");
+        Token token = new Token(header + "." + payload + "." + "s".repeat(43));
+        return token;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
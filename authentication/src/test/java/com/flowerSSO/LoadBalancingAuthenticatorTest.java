@@ -0,0 +1,158 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoadBalancingAuthenticatorTest {
+
+    private AuthenticatorImpl first;
+    private AuthenticatorImpl second;
+    private LoadBalancingAuthenticator auth;
+    private Token token;
+
+    @BeforeEach
+    void setup() {
+        first = mock(AuthenticatorImpl.class);
+        second = mock(AuthenticatorImpl.class);
+        token = new Token("eyJhbGciOiJIUzI1NiJ9." + "p".repeat(200) + "." + "s".repeat(43));
+    }
+
+    @AfterEach
+    void teardown() {
+        if (auth != null) {
+            auth.close();
+        }
+    }
+
+    @Test
+    void spreadsVerificationsAcrossReplicas() {
+        when(first.authenticate(any())).thenReturn(testCredentials());
+        when(second.authenticate(any())).thenReturn(testCredentials());
+        auth = new LoadBalancingAuthenticator(List.of(first, second), 3, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 50; i++) {
+            auth.authenticate(token);
+        }
+
+        verify(first, atLeastOnce()).authenticate(any());
+        verify(second, atLeastOnce()).authenticate(any());
+    }
+
+    @Test
+    void prefersReplicaWithFewerOutstandingRequests() {
+        when(first.authenticateAsync(any())).thenReturn(new CompletableFuture<>());
+        when(second.authenticateAsync(any())).thenReturn(CompletableFuture.completedFuture(testCredentials()));
+        auth = new LoadBalancingAuthenticator(List.of(first, second), 3, Duration.ofMinutes(1));
+
+        auth.authenticateAsync(token);
+        for (int i = 0; i < 20; i++) {
+            auth.authenticateAsync(token);
+        }
+
+        verify(first, times(1)).authenticateAsync(any());
+    }
+
+    @Test
+    void ejectsFailingReplica() {
+        when(first.authenticate(any())).thenThrow(new AuthenticationServiceException("Down"));
+        // The healthy replica answers more slowly, so the failing one stays the lower-latency choice until ejected
+        when(second.authenticate(any())).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return testCredentials();
+        });
+        auth = new LoadBalancingAuthenticator(List.of(first, second), 2, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 50; i++) {
+            try {
+                auth.authenticate(token);
+            } catch (AuthenticationServiceException e) {
+                // expected while the failing replica is still in rotation
+            }
+        }
+
+        assertEquals(1, auth.getHealthyEndpointCount());
+        assertEquals(1, auth.getEjectionCount());
+        verify(first, times(2)).authenticate(any());
+    }
+
+    @Test
+    void rejectedTokensDoNotEjectReplica() {
+        when(first.authenticate(any())).thenThrow(new TokenRejectedException("Rejected"));
+        auth = new LoadBalancingAuthenticator(List.of(first), 1, Duration.ofMinutes(1));
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+
+        assertEquals(1, auth.getHealthyEndpointCount());
+    }
+
+    @Test
+    void probeRestoresEjectedReplica() throws Exception {
+        when(first.authenticate(any())).thenThrow(new AuthenticationServiceException("Down"));
+        when(first.probe()).thenReturn(true);
+        auth = new LoadBalancingAuthenticator(List.of(first), 1, Duration.ofMillis(20));
+
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+        assertEquals(0, auth.getHealthyEndpointCount());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (auth.getHealthyEndpointCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, auth.getHealthyEndpointCount());
+    }
+
+    @Test
+    void usesAllReplicasWhenAllAreEjected() {
+        when(first.authenticate(any())).thenThrow(new AuthenticationServiceException("Down"));
+        auth = new LoadBalancingAuthenticator(List.of(first), 1, Duration.ofMinutes(1));
+
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+
+        verify(first, times(2)).authenticate(any());
+        verify(first, never()).probe();
+    }
+
+    private static Credentials testCredentials() {
+        Credentials credentials = new Credentials();
+        credentials.setId(10);
+        return credentials;
+    }
+}
@@ -0,0 +1,267 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Jwts;
+
+public class LocalAuthenticatorTest {
+
+    private static final String ISSUER = "Auth Service";
+
+    private final SecretKey signingKey = Jwts.SIG.HS256.key().build();
+    private final Tokenizer tokenizer = new Tokenizer(signingKey, ISSUER, Duration.ofMinutes(60));
+    private Credentials userCredentials;
+
+    @BeforeEach
+    void setup() {
+        userCredentials = new Credentials();
+        userCredentials.setId(31);
+        userCredentials.setFirstName("Timothee");
+        userCredentials.setLastName("Greswell");
+        userCredentials.setLocation("Japan");
+        userCredentials.setDepartment("Information Technology");
+        userCredentials.setTitle("Manager");
+    }
+
+    @Test
+    void authenticatesTokenFromTokenizer() {
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER);
+
+        Credentials result = auth.authenticate(token(tokenizer.tokenize(userCredentials)));
+
+        assertEquals(31, result.getId());
+        assertEquals("Timothee", result.getFirstName());
+        assertEquals("Greswell", result.getLastName());
+        assertEquals("Japan", result.getLocation());
+        assertEquals("Information Technology", result.getDepartment());
+        assertEquals("Manager", result.getTitle());
+    }
+
+    @Test
+    void recordsVerifiedClaimsOnToken() {
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER);
+        Token token = token(tokenizer.tokenize(userCredentials));
+
+        auth.authenticate(token);
+
+        assertTrue(token.isVerified());
+        assertEquals(31, token.getClaims().getId());
+        assertEquals(ISSUER, token.getClaims().getIssuer());
+        assertEquals("Timothee Greswell", token.getClaims().getSubject());
+        assertEquals("Manager", token.getClaims().toCredentials().getTitle());
+    }
+
+    @Test
+    void doesNotVerifyTokenDeferredToFallback() {
+        Authenticator fallback = mock(Authenticator.class);
+        when(fallback.authenticate(any())).thenReturn(userCredentials);
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER, fallback);
+        Token token = token(foreignToken());
+
+        auth.authenticate(token);
+
+        assertFalse(token.isVerified());
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER);
+        String expired = signedToken(signingKey, ISSUER, new Date(System.currentTimeMillis() - 60000));
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token(expired)));
+    }
+
+    @Test
+    void rejectsWrongIssuer() {
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER);
+        String foreignIssuer = signedToken(signingKey, "Someone Else", new Date(System.currentTimeMillis() + 60000));
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token(foreignIssuer)));
+    }
+
+    @Test
+    void rejectsForeignSignatureWithoutFallback() {
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER);
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token(foreignToken())));
+    }
+
+    @Test
+    void defersForeignSignatureToFallback() {
+        Authenticator fallback = mock(Authenticator.class);
+        when(fallback.authenticate(any())).thenReturn(userCredentials);
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER, fallback);
+
+        assertSame(userCredentials, auth.authenticate(token(foreignToken())));
+    }
+
+    @Test
+    void closingClosesFallback() {
+        Authenticator fallback = mock(Authenticator.class);
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER, fallback);
+
+        auth.close();
+        new LocalAuthenticator(signingKey, ISSUER).close();
+
+        verify(fallback).close();
+    }
+
+    @Test
+    void defersForeignSignatureToFallbackAsync() throws Exception {
+        Authenticator fallback = mock(Authenticator.class);
+        when(fallback.authenticateAsync(any())).thenReturn(CompletableFuture.completedFuture(userCredentials));
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER, fallback);
+
+        assertSame(userCredentials, auth.authenticateAsync(token(foreignToken())).get());
+        verify(fallback, never()).authenticate(any());
+    }
+
+    @Test
+    void doesNotDeferForgedTokenToFallback() {
+        Authenticator fallback = mock(Authenticator.class);
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER, fallback);
+        SecretKey otherKey = Jwts.SIG.HS256.key().build();
+        String forged = signedToken(otherKey, ISSUER, new Date(System.currentTimeMillis() + 60000));
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token(forged)));
+        verify(fallback, never()).authenticate(any());
+    }
+
+    @Test
+    void doesNotDeferExpiredTokenToFallback() {
+        Authenticator fallback = mock(Authenticator.class);
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER, fallback);
+        String expired = signedToken(signingKey, ISSUER, new Date(System.currentTimeMillis() - 60000));
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token(expired)));
+        verify(fallback, never()).authenticate(any());
+    }
+
+    @Test
+    void authenticatesTokenSignedWithPublishedKey() {
+        SigningKeyManager keyManager = new SigningKeyManager(TokenSigningAlgorithm.ED25519, Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60));
+        try (Tokenizer asymmetric = new Tokenizer(keyManager, ISSUER, Duration.ofMinutes(60))) {
+            Authenticator auth = new LocalAuthenticator(asymmetric.getKeyLocator(), ISSUER, null);
+
+            Credentials result = auth.authenticate(token(asymmetric.tokenize(userCredentials)));
+
+            assertEquals(31, result.getId());
+            assertEquals("Greswell", result.getLastName());
+        }
+    }
+
+    @Test
+    void defersTokenWithUnknownKeyToFallback() {
+        SigningKeyManager keyManager = new SigningKeyManager(TokenSigningAlgorithm.ES256, Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60));
+        try (Tokenizer asymmetric = new Tokenizer(keyManager, ISSUER, Duration.ofMinutes(60))) {
+            Authenticator fallback = mock(Authenticator.class);
+            when(fallback.authenticate(any())).thenReturn(userCredentials);
+            Authenticator auth = new LocalAuthenticator(asymmetric.getKeyLocator(), ISSUER, fallback);
+
+            assertSame(userCredentials, auth.authenticate(token(tokenizer.tokenize(userCredentials))));
+        }
+    }
+
+    @Test
+    void doesNotDeferTokenForgedUnderPublishedKeyToFallback() {
+        SigningKeyManager keyManager = new SigningKeyManager(TokenSigningAlgorithm.ES256, Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60));
+        try (Tokenizer asymmetric = new Tokenizer(keyManager, ISSUER, Duration.ofMinutes(60))) {
+            Authenticator fallback = mock(Authenticator.class);
+            Authenticator auth = new LocalAuthenticator(asymmetric.getKeyLocator(), ISSUER, fallback);
+            String signed = asymmetric.tokenize(userCredentials);
+            int tampered = signed.lastIndexOf('.') + 10;
+            String forged = signed.substring(0, tampered) + (signed.charAt(tampered) == 'A' ? 'B' : 'A') + signed.substring(tampered + 1);
+
+            assertThrows(AuthenticationException.class, () -> auth.authenticate(token(forged)));
+            verify(fallback, never()).authenticate(any());
+        }
+    }
+
+    @Test
+    void authenticatesMinimalTokenWithoutIssuer() {
+        Tokenizer minimal = new Tokenizer(signingKey, ISSUER, Duration.ofMinutes(60), TokenClaimProfile.MINIMAL);
+        Authenticator auth = new LocalAuthenticator(minimal.getKeyLocator(), minimal.getIssuer(), null);
+        Token token = new Token(minimal.tokenize(userCredentials), TokenFormat.of(TokenClaimProfile.MINIMAL));
+
+        Credentials result = auth.authenticate(token);
+
+        assertEquals(31, result.getId());
+    }
+
+    @Test
+    void rejectsNullToken() {
+        Authenticator auth = new LocalAuthenticator(signingKey, ISSUER);
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(null));
+    }
+
+    private String foreignToken() {
+        SecretKey otherKey = Jwts.SIG.HS256.key().build();
+        return signedToken(otherKey, "auth-server-1", ISSUER, new Date(System.currentTimeMillis() + 60000));
+    }
+
+    private String signedToken(SecretKey key, String issuer, Date expiry) {
+        return signedToken(key, null, issuer, expiry);
+    }
+
+    private String signedToken(SecretKey key, String keyId, String issuer, Date expiry) {
+        return Jwts.builder()
+                   .header().keyId(keyId).and()
+                   .issuer(issuer)
+                   .claim("id", 31)
+                   .claim("first_name", "Timothee")
+                   .claim("last_name", "Greswell")
+                   .claim("location", "Japan")
+                   .claim("department", "Information Technology")
+                   .claim("title", "Manager")
+                   .subject("Timothee Greswell")
+                   .issuedAt(new Date(expiry.getTime() - 3600000))
+                   .expiration(expiry)
+                   .signWith(key)
+                   .compact();
+    }
+
+    private static Token token(String jwt) {
+        Token token = new Token(jwt);
+        return token;
+    }
+}
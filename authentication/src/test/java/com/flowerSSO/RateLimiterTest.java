@@ -0,0 +1,97 @@
+package com.flowerSSO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void testBurstThenEvenRefill() {
+        RateLimiter limiter = new RateLimiter(5, Duration.ofSeconds(60), 100, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(12), wait);
+
+        now.addAndGet(wait - 1);
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        now.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofSeconds(60), 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+        assertEquals(0, limiter.tryAcquire("b@example.com"));
+    }
+
+    @Test
+    void testRejectedCallsDoNotExtendTheWait() {
+        RateLimiter limiter = new RateLimiter(2, Duration.ofSeconds(10), 100, now::get);
+
+        limiter.tryAcquire("key");
+        limiter.tryAcquire("key");
+        long wait = limiter.tryAcquire("key");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(wait, limiter.tryAcquire("key"));
+        }
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("key"));
+    }
+
+    @Test
+    void testIdleBucketsExpireAndRefill() {
+        RateLimiter limiter = new RateLimiter(3, Duration.ofSeconds(30), 100, now::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("key"));
+        }
+        assertTrue(limiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void testConcurrentCallersNeverExceedLimit() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1000, Duration.ofHours(1), 100, now::get);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1000, allowed.get());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, Duration.ofSeconds(1), 10));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, Duration.ZERO, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, Duration.ofSeconds(1), 0));
+    }
+}
@@ -0,0 +1,150 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ResilientAuthenticatorTest {
+
+    private Authenticator delegate;
+    private CircuitBreaker breaker;
+    private Token token;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(Authenticator.class);
+        breaker = new CircuitBreaker(10, 2, 50, Duration.ofSeconds(5), 100, Duration.ofMinutes(1), 1);
+        token = new Token("eyJhbGciOiJIUzI1NiJ9." + "p".repeat(200) + "." + "s".repeat(43));
+    }
+
+    @Test
+    void returnsDelegateCredentials() {
+        when(delegate.authenticateAsync(any())).thenReturn(CompletableFuture.completedFuture(testCredentials()));
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(1), Duration.ZERO);
+
+        assertEquals(10, auth.authenticate(token).getId());
+    }
+
+    @Test
+    void failsWhenDeadlineIsExceeded() {
+        when(delegate.authenticateAsync(any())).thenReturn(new CompletableFuture<>());
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofMillis(50), Duration.ZERO);
+
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+        assertEquals(1, auth.getTimeoutCount());
+    }
+
+    @Test
+    void failsFastOnceBreakerIsOpen() {
+        when(delegate.authenticateAsync(any())).thenReturn(CompletableFuture.failedFuture(new AuthenticationServiceException("Down")));
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(1), Duration.ZERO);
+
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationServiceException.class, () -> auth.authenticate(token));
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+
+        verify(delegate, times(2)).authenticateAsync(any());
+        assertEquals(CircuitBreaker.State.OPEN, auth.getBreakerState());
+        assertEquals(1, auth.getTripCount());
+        assertEquals(1, auth.getRejectedCount());
+    }
+
+    @Test
+    void rejectedTokensDoNotTripBreaker() {
+        when(delegate.authenticateAsync(any())).thenReturn(CompletableFuture.failedFuture(new TokenRejectedException("Rejected")));
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(1), Duration.ZERO);
+
+        for (int i = 0; i < 5; i++) {
+            AuthenticationException e = assertThrows(AuthenticationException.class, () -> auth.authenticate(token));
+            assertEquals("Rejected", e.getMessage());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, auth.getBreakerState());
+        verify(delegate, times(5)).authenticateAsync(any());
+    }
+
+    @Test
+    void slowRequestIsHedged() throws Exception {
+        when(delegate.authenticateAsync(any()))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.completedFuture(testCredentials()));
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(5), Duration.ofMillis(20));
+
+        assertEquals(10, auth.authenticateAsync(token).get(5, TimeUnit.SECONDS).getId());
+        verify(delegate, times(2)).authenticateAsync(any());
+        assertEquals(1, auth.getHedgeCount());
+    }
+
+    @Test
+    void serviceFailureIsRetriedThroughHedge() throws Exception {
+        when(delegate.authenticateAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new AuthenticationServiceException("Down")))
+                .thenReturn(CompletableFuture.completedFuture(testCredentials()));
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+        assertEquals(10, auth.authenticateAsync(token).get(5, TimeUnit.SECONDS).getId());
+        assertEquals(1, auth.getHedgeCount());
+    }
+
+    @Test
+    void failsOnceEveryRequestHasFailed() {
+        when(delegate.authenticateAsync(any())).thenReturn(CompletableFuture.failedFuture(new AuthenticationServiceException("Down")));
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> auth.authenticateAsync(token).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(AuthenticationServiceException.class, e.getCause());
+        verify(delegate, times(2)).authenticateAsync(any());
+    }
+
+    @Test
+    void nullTokenIsRejected() {
+        ResilientAuthenticator auth = new ResilientAuthenticator(delegate, breaker, Duration.ofSeconds(1), Duration.ZERO);
+
+        assertThrows(AuthenticationException.class, () -> auth.authenticate(null));
+        verify(delegate, never()).authenticateAsync(any());
+    }
+
+    private static Credentials testCredentials() {
+        Credentials credentials = new Credentials();
+        credentials.setId(10);
+        credentials.setFirstName("John");
+        credentials.setLastName("Smith");
+        return credentials;
+    }
+}
@@ -59,16 +59,47 @@ public class Credentials extends LoginCredentials {
     private String userRole;
     private Boolean isAdmin = false;
 
-    private XssSanitizer mySanitizer;
+    private final XssSanitizer mySanitizer;
 
     private final Logger logger = LoggerFactory.getEventLogger();
 
     /* Constructor */
     public Credentials() {
-        mySanitizer = new XssSanitizerImpl();
-        super();
-        firstName = new Name();
-        lastName = new Name();
+        this(XssSanitizerImpl.getInstance(), getSharedPasswordHasher());
+    }
+
+    /**
+     * Constructs empty credentials that validate and hash with the given components.
+     * The sanitizer is shared with their names.
+     *
+     * @param sanitizer the shared sanitizer that cleans input as it is set
+     * @param passwordHasher the shared hasher used for passwords
+     */
+    public Credentials(XssSanitizer sanitizer, PasswordHasher passwordHasher) {
+        super(sanitizer, passwordHasher);
+        mySanitizer = sanitizer;
+        firstName = new Name(sanitizer);
+        lastName = new Name(sanitizer);
+    }
+
+    /**
+     * Constructs a copy of another Credentials object.
+     * <p>
+     * The source fields have already been validated, so they are copied as-is.
+     *
+     * @param other the credentials to copy
+     */
+    public Credentials(Credentials other) {
+        super(other);
+        mySanitizer = other.mySanitizer;
+        id = other.id;
+        firstName = new Name(other.firstName.getName(), mySanitizer);
+        lastName = new Name(other.lastName.getName(), mySanitizer);
+        title = other.title;
+        department = other.department;
+        location = other.location;
+        userRole = other.userRole;
+        isAdmin = other.isAdmin;
     }
 
     /**
@@ -114,7 +145,9 @@ public class Credentials extends LoginCredentials {
      * @return id
      */
     public int getId() {
-        logger.debug("returning the id: " + id);
+        if (logger.isDebugEnabled()) {
+            logger.debug("returning the id: {}", id);
+        }
         return id;
     }
 
@@ -145,7 +178,7 @@ public class Credentials extends LoginCredentials {
      * @return title
      */
     public String getTitle() {
-        logger.debug("returning the title: " + title);
+        logger.debug("returning the title: {}", title);
         return title;
     }
 
@@ -180,7 +213,7 @@ public class Credentials extends LoginCredentials {
      * @return department
      */
     public String getDepartment() {
-        logger.debug("returning the department: " + department);
+        logger.debug("returning the department: {}", department);
         return department;
     }
 
@@ -215,7 +248,7 @@ public class Credentials extends LoginCredentials {
      * @return location
      */
     public String getLocation() {
-        logger.debug("returning the location: " + location);
+        logger.debug("returning the location: {}", location);
         return location;
     }
 
@@ -27,6 +27,7 @@ import org.apache.commons.validator.routines.EmailValidator;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 
@@ -37,30 +38,94 @@ public class LoginCredentials {
     @JsonAlias({"email"})
     private String email;
 
-    @JsonProperty("password")
-    @JsonAlias({"password"})
+    @JsonIgnore
     private String password;
 
+    /**
+     * The password as submitted in a request, kept in plaintext only until it has been
+     * verified. It is never serialized, logged or copied into the hashed password.
+     */
+    private transient String submittedPassword;
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String tempPassword;
 
-    private XssSanitizer mySanitizer;
-    private PasswordHasher passwordHasher;
+    /**
+     * The hasher shared by every instance built without one; replaced at startup by the
+     * configured, bounded hasher.
+     */
+    private static volatile PasswordHasher sharedPasswordHasher = new PasswordHasherImpl();
+
+    /**
+     * A hash of a random password, verified against when no user has the email given so
+     * that unknown emails cost as much as known ones. Made once per hasher.
+     */
+    private static volatile DummyHash dummyHash;
+
+    private record DummyHash(PasswordHasher hasher, String hash) {}
+
+    private final XssSanitizer mySanitizer;
+    private final PasswordHasher passwordHasher;
 
     private final Logger logger = LoggerFactory.getEventLogger();
 
     public LoginCredentials() {
-        mySanitizer = new XssSanitizerImpl();
-        passwordHasher = new PasswordHasherImpl();
+        this(XssSanitizerImpl.getInstance(), sharedPasswordHasher);
+    }
+
+    /**
+     * Constructs empty login credentials that validate and hash with the given components.
+     *
+     * @param sanitizer the shared sanitizer that cleans input as it is set
+     * @param passwordHasher the shared hasher used for passwords
+     */
+    public LoginCredentials(XssSanitizer sanitizer, PasswordHasher passwordHasher) {
+        mySanitizer = sanitizer;
+        this.passwordHasher = passwordHasher;
         logger.debug("finishing the default constructor");
     }
 
+    /**
+     * Constructs a copy of another LoginCredentials object, sharing its sanitizer and hasher.
+     *
+     * @param other the login credentials to copy
+     */
+    public LoginCredentials(LoginCredentials other) {
+        this(other.mySanitizer, other.passwordHasher);
+        this.email = other.email;
+        this.password = other.password;
+        this.submittedPassword = other.submittedPassword;
+        this.tempPassword = other.tempPassword;
+    }
+
     public LoginCredentials(String email, String password) {
         this();
         this.email = email;
         setPassword(password);
     }
 
+    /**
+     * Sets the hasher used by login credentials built without one, such as those
+     * deserialized from requests.
+     *
+     * @param passwordHasher the shared password hasher
+     */
+    public static void setSharedPasswordHasher(PasswordHasher passwordHasher) {
+        if (passwordHasher == null) {
+            throw new IllegalArgumentException("Password hasher cannot be null");
+        }
+        sharedPasswordHasher = passwordHasher;
+    }
+
+    /**
+     * Gets the hasher used by login credentials built without one.
+     *
+     * @return the shared password hasher
+     */
+    static PasswordHasher getSharedPasswordHasher() {
+        return sharedPasswordHasher;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -104,6 +169,76 @@ public class LoginCredentials {
     public void setPassword(String password) {
 
         logger.debug("setting the password");
+
+        // Store hashed version for persistence
+        this.password = passwordHasher.hash(validatePassword(password));
+    }
+
+    /**
+     * Sets the password submitted to log in, without hashing it. It is checked and
+     * sanitized like a new password, so it matches the hash stored by setPassword.
+     * JSON request bodies set their "password" through this method.
+     *
+     * @param password the plaintext password
+     */
+    @JsonProperty("password")
+    public void setSubmittedPassword(String password) {
+        logger.debug("setting the submitted password");
+        this.submittedPassword = validatePassword(password);
+    }
+
+    /**
+     * Gets the plaintext password submitted to log in, for rehashing after it has been verified.
+     *
+     * @return the submitted password, or null if none was submitted or it has been cleared
+     */
+    String getSubmittedPassword() {
+        return submittedPassword;
+    }
+
+    /**
+     * Discards the submitted plaintext password once it is no longer needed.
+     */
+    public void clearSubmittedPassword() {
+        submittedPassword = null;
+    }
+
+    /**
+     * Verifies the submitted password against a user's stored hash, hashing exactly once.
+     * When there is no stored hash, as for an unknown email, a dummy hash is verified
+     * instead so the call takes as long as a real one, and false is returned.
+     *
+     * @param storedHash the user's stored hash, or null if no user has the email
+     * @return true if a password was submitted and it matches the stored hash
+     */
+    public boolean verifySubmittedPassword(String storedHash) {
+        if (submittedPassword == null) {
+            logger.warn("No password submitted to verify");
+            return false;
+        }
+        if (storedHash == null || storedHash.isEmpty()) {
+            passwordHasher.verify(submittedPassword, dummyHashFor(passwordHasher));
+            return false;
+        }
+        return passwordHasher.verify(submittedPassword, storedHash);
+    }
+
+    private static String dummyHashFor(PasswordHasher hasher) {
+        DummyHash current = dummyHash;
+        if (current == null || current.hasher() != hasher) {
+            current = new DummyHash(hasher, hasher.hash(RandomStringUtils.secure().nextAlphanumeric(16)));
+            dummyHash = current;
+        }
+        return current.hash();
+    }
+
+    /**
+     * Checks a plaintext password's length and sanitizes it.
+     *
+     * @param password the plaintext password
+     * @return the sanitized password
+     */
+    private String validatePassword(String password) {
         final int maxLenth = 64;
         final int minLenth = 12;
 
@@ -129,8 +264,7 @@ public class LoginCredentials {
             throw new IllegalArgumentException("password must be at least 12 characters");
         }
 
-        // Store hashed version for persistence
-        this.password = passwordHasher.hash(sanitizedPassword);
+        return sanitizedPassword;
     }
 
     /**
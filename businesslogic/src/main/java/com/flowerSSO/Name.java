@@ -31,17 +31,38 @@ package com.flowerSSO;
 public class Name {
     private String nameString = "Name";
 
-    private XssSanitizer mySanitizer;
+    private final XssSanitizer mySanitizer;
 
     private final Logger logger = LoggerFactory.getEventLogger();
 
 
     public Name() {
-        mySanitizer = new XssSanitizerImpl();
+        this(XssSanitizerImpl.getInstance());
     }
 
     public Name(String nameString) {
-        mySanitizer = new XssSanitizerImpl();
+        this(XssSanitizerImpl.getInstance());
+        this.nameString = nameString;
+    }
+
+    /**
+     * Constructs a name validated with the given sanitizer.
+     *
+     * @param sanitizer the shared sanitizer that cleans names as they are set
+     */
+    public Name(XssSanitizer sanitizer) {
+        mySanitizer = sanitizer;
+    }
+
+    /**
+     * Constructs a name validated with the given sanitizer from a value that
+     * has already been validated.
+     *
+     * @param nameString the validated name
+     * @param sanitizer the shared sanitizer that cleans names as they are set
+     */
+    public Name(String nameString, XssSanitizer sanitizer) {
+        this(sanitizer);
         this.nameString = nameString;
     }
 
@@ -89,7 +110,7 @@ public class Name {
      * @return nameString
      */
     public String getName() {
-        logger.debug("returning the name: " + nameString);
+        logger.debug("returning the name: {}", nameString);
         return nameString;
     }
 
@@ -0,0 +1,253 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+/**
+ * A key the server signs tokens with, together with everything needed to sign with it
+ * cheaply: the encoded JWS header, which names the key by its {@code kid}, and a
+ * {@link Mac} or {@link Signature} per thread, already initialised with the key.
+ * <p>
+ * HMAC keys are shared secrets and are never published. Asymmetric keys are generated
+ * in memory and identified by their RFC 7638 thumbprint; their public half is published
+ * as a JSON Web Key so relying parties can verify tokens without calling back.
+ */
+public final class SigningKey {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final int MIN_HMAC_KEY_BYTES = 32;
+
+    private final String keyId;
+
+    private final String algorithm;
+
+    private final Key verificationKey;
+
+    private final PublicJwk<?> jwk;
+
+    private final byte[] encodedHeader;
+
+    private final ThreadLocal<Mac> mac;
+
+    private final ThreadLocal<Signature> signature;
+
+    private SigningKey(String keyId, String algorithm, Key verificationKey, PublicJwk<?> jwk,
+                       ThreadLocal<Mac> mac, ThreadLocal<Signature> signature) {
+        this.keyId = keyId;
+        this.algorithm = algorithm;
+        this.verificationKey = verificationKey;
+        this.jwk = jwk;
+        String header = keyId == null
+                ? "{\"alg\":\"" + algorithm + "\"}"
+                : "{\"alg\":\"" + algorithm + "\",\"kid\":\"" + keyId + "\"}";
+        this.encodedHeader = BASE64URL.encode(header.getBytes(StandardCharsets.US_ASCII));
+        this.mac = mac;
+        this.signature = signature;
+    }
+
+    /**
+     * Wraps a shared HMAC secret. The algorithm (HS256, HS384 or HS512) is chosen from
+     * the key length, as jjwt does, and the token header carries no {@code kid}.
+     *
+     * @param secretKey the HMAC key, at least 256 bits long
+     * @return the signing key
+     */
+    static SigningKey hmac(SecretKey secretKey) {
+        if (secretKey == null) {
+            throw new IllegalArgumentException("Signing key cannot be null");
+        }
+        byte[] keyBytes = secretKey.getEncoded();
+        if (keyBytes == null || keyBytes.length < MIN_HMAC_KEY_BYTES) {
+            throw new IllegalArgumentException("Signing key must be at least 256 bits long");
+        }
+        String algorithm = keyBytes.length >= 64 ? "HS512" : keyBytes.length >= 48 ? "HS384" : "HS256";
+        String jcaAlgorithm = "HmacSHA" + algorithm.substring(2);
+        ThreadLocal<Mac> mac = ThreadLocal.withInitial(() -> newMac(jcaAlgorithm, secretKey));
+        // Fail now rather than on the first login if the platform cannot use the key
+        mac.get();
+        return new SigningKey(null, algorithm, secretKey, null, mac, null);
+    }
+
+    /**
+     * Generates a new key pair for an asymmetric algorithm.
+     *
+     * @param algorithm ES256 or ED25519
+     * @return the signing key
+     */
+    static SigningKey generate(TokenSigningAlgorithm algorithm) {
+        String jwsAlgorithm;
+        String jcaAlgorithm;
+        KeyPair keyPair;
+        try {
+            switch (algorithm) {
+                case ES256:
+                    KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+                    ec.initialize(new ECGenParameterSpec("secp256r1"));
+                    keyPair = ec.generateKeyPair();
+                    jwsAlgorithm = "ES256";
+                    // JWS wants the raw R || S signature rather than DER
+                    jcaAlgorithm = "SHA256withECDSAinP1363Format";
+                    break;
+                case ED25519:
+                    keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                    jwsAlgorithm = "EdDSA";
+                    jcaAlgorithm = "Ed25519";
+                    break;
+                default:
+                    throw new IllegalArgumentException("Key pairs cannot be generated for " + algorithm);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate a " + algorithm + " key pair", e);
+        }
+        PublicJwk<?> jwk = Jwks.builder()
+                               .key(keyPair.getPublic())
+                               .idFromThumbprint()
+                               .algorithm(jwsAlgorithm)
+                               .publicKeyUse("sig")
+                               .build();
+        PrivateKey privateKey = keyPair.getPrivate();
+        ThreadLocal<Signature> signature = ThreadLocal.withInitial(() -> newSignature(jcaAlgorithm, privateKey));
+        signature.get();
+        return new SigningKey(jwk.getId(), jwsAlgorithm, keyPair.getPublic(), jwk, null, signature);
+    }
+
+    /**
+     * Signs an encoded claim set and assembles the compact JWS.
+     *
+     * @param encodedPayload the Base64URL-encoded claim set
+     * @return the compact, signed JWT
+     */
+    String sign(byte[] encodedPayload) {
+        byte[] rawSignature;
+        if (mac != null) {
+            Mac signer = mac.get();
+            signer.update(encodedHeader);
+            signer.update((byte) '.');
+            signer.update(encodedPayload);
+            rawSignature = signer.doFinal();
+        } else {
+            Signature signer = signature.get();
+            try {
+                signer.update(encodedHeader);
+                signer.update((byte) '.');
+                signer.update(encodedPayload);
+                rawSignature = signer.sign();
+            } catch (GeneralSecurityException e) {
+                // Start the next token on this thread from a fresh Signature
+                signature.remove();
+                throw new IllegalStateException("Unable to sign token", e);
+            }
+        }
+        byte[] encodedSignature = BASE64URL.encode(rawSignature);
+        byte[] token = new byte[encodedHeader.length + encodedPayload.length + encodedSignature.length + 2];
+        System.arraycopy(encodedHeader, 0, token, 0, encodedHeader.length);
+        int offset = encodedHeader.length;
+        token[offset++] = '.';
+        System.arraycopy(encodedPayload, 0, token, offset, encodedPayload.length);
+        offset += encodedPayload.length;
+        token[offset++] = '.';
+        System.arraycopy(encodedSignature, 0, token, offset, encodedSignature.length);
+        return new String(token, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Gets the key ID written into the header of the tokens this key signs.
+     * @return The key ID, or null for an HMAC key.
+     */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * Gets the JWS algorithm name of this key.
+     * @return The algorithm, e.g. HS256, ES256 or EdDSA.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Gets the key tokens signed with this key are verified with.
+     * @return The public key, or the secret key for HMAC.
+     */
+    public Key getVerificationKey() {
+        return verificationKey;
+    }
+
+    /**
+     * Gets the public JSON Web Key published for this key.
+     * @return The public JWK, or null for an HMAC key, which is never published.
+     */
+    public PublicJwk<?> getJwk() {
+        return jwk;
+    }
+
+    /**
+     * Creates a Mac initialised with an HMAC key.
+     *
+     * @param algorithm the JCA name of the HMAC algorithm
+     * @param secretKey the HMAC key
+     * @return the initialised Mac
+     */
+    private static Mac newMac(String algorithm, SecretKey secretKey) {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Signing key cannot be used with " + algorithm, e);
+        }
+    }
+
+    /**
+     * Creates a Signature initialised for signing with a private key.
+     *
+     * @param algorithm the JCA name of the signature algorithm
+     * @param privateKey the private key
+     * @return the initialised Signature
+     */
+    private static Signature newSignature(String algorithm, PrivateKey privateKey) {
+        try {
+            Signature signature = Signature.getInstance(algorithm);
+            signature.initSign(privateKey);
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signing key cannot be used with " + algorithm, e);
+        }
+    }
+}
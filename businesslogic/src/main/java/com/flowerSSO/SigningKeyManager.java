@@ -0,0 +1,255 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Generates and rotates the asymmetric key pairs tokens are signed with, and keeps
+ * the set of public keys relying parties need to verify them.
+ * <p>
+ * Each key signs for one rotation interval. The next key is generated and published
+ * one overlap window before it takes over, so relying parties that cache the key set
+ * for less than the overlap already know it when its first token arrives. A retired
+ * key stays published until every token it signed has expired, plus the overlap
+ * window. Keys live only in memory: a restart starts from a fresh key.
+ */
+public class SigningKeyManager implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Duration CHECK_INTERVAL = Duration.ofMinutes(1);
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+
+    private final TokenSigningAlgorithm algorithm;
+
+    private final Duration rotationInterval;
+
+    private final Duration overlap;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    private final ScheduledExecutorService rotator;
+
+    private volatile KeySet keys;
+
+    /**
+     * Constructs a key manager that checks once a minute whether a key is due to be
+     * published, to take over or to be withdrawn.
+     *
+     * @param algorithm the asymmetric algorithm keys are generated for
+     * @param rotationInterval how long each key signs tokens
+     * @param overlap how long a key is published before it signs and after its tokens expire
+     * @param tokenTtl the lifetime of the tokens the keys sign
+     */
+    public SigningKeyManager(TokenSigningAlgorithm algorithm, Duration rotationInterval, Duration overlap, Duration tokenTtl) {
+        this(algorithm, rotationInterval, overlap, tokenTtl, Clock.systemUTC(),
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "signing-key-rotator");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * Constructs a key manager with the given clock.
+     *
+     * @param algorithm the asymmetric algorithm keys are generated for
+     * @param rotationInterval how long each key signs tokens
+     * @param overlap how long a key is published before it signs and after its tokens expire
+     * @param tokenTtl the lifetime of the tokens the keys sign
+     * @param clock the clock rotation is scheduled against
+     * @param rotator the executor that runs {@link #rotate()}, or null to leave rotation to the caller
+     */
+    SigningKeyManager(TokenSigningAlgorithm algorithm, Duration rotationInterval, Duration overlap, Duration tokenTtl,
+                      Clock clock, ScheduledExecutorService rotator) {
+        if (algorithm == null || algorithm == TokenSigningAlgorithm.HMAC) {
+            throw new IllegalArgumentException("Key rotation needs an asymmetric signing algorithm");
+        }
+        if (rotationInterval == null || overlap == null || tokenTtl == null || clock == null) {
+            throw new IllegalArgumentException("Rotation interval, overlap, token lifetime and clock cannot be null");
+        }
+        if (overlap.isNegative() || overlap.isZero() || rotationInterval.compareTo(overlap) <= 0) {
+            throw new IllegalArgumentException("Overlap must be positive and shorter than the rotation interval");
+        }
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.overlap = overlap;
+        this.retention = tokenTtl.plus(overlap);
+        this.clock = clock;
+        this.keys = keySet(SigningKey.generate(algorithm), clock.instant().plus(rotationInterval), null, List.of());
+        this.rotator = rotator;
+        if (rotator != null) {
+            rotator.scheduleWithFixedDelay(this::rotateQuietly, CHECK_INTERVAL.toMillis(), CHECK_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gets the key that signs new tokens.
+     * @return The active signing key.
+     */
+    public SigningKey getActiveKey() {
+        return keys.active();
+    }
+
+    /**
+     * Gets every key whose public half is currently published: the active key, the
+     * next key if it has been announced, and retired keys whose tokens may still be valid.
+     * @return The published keys, active key first.
+     */
+    public List<SigningKey> getPublishedKeys() {
+        return keys.published();
+    }
+
+    /**
+     * Finds a published key by its key ID.
+     *
+     * @param keyId the {@code kid} from a token header
+     * @return the key, or null if no published key has that ID
+     */
+    public SigningKey findKey(String keyId) {
+        for (SigningKey key : keys.published()) {
+            if (key.getKeyId().equals(keyId)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the published keys as a JSON Web Key Set (RFC 7517).
+     * @return The JWKS document.
+     */
+    public String getJwksJson() {
+        return keys.jwksJson();
+    }
+
+    /**
+     * Publishes the next key, hands over to it and withdraws expired keys as their
+     * times come. Runs on the rotator; package-private so tests can drive the clock.
+     */
+    synchronized void rotate() {
+        Instant now = clock.instant();
+        KeySet current = keys;
+        SigningKey active = current.active();
+        Instant activeUntil = current.activeUntil();
+        SigningKey next = current.next();
+        List<RetiredKey> retired = new ArrayList<>(current.retired());
+        boolean changed = false;
+        if (next == null && !now.isBefore(activeUntil.minus(overlap))) {
+            next = SigningKey.generate(algorithm);
+            logger.info("Published next token signing key " + next.getKeyId() + ".");
+            changed = true;
+        }
+        if (!now.isBefore(activeUntil)) {
+            retired.add(new RetiredKey(active, now.plus(retention)));
+            logger.info("Token signing key " + next.getKeyId() + " replaced " + active.getKeyId() + ".");
+            active = next;
+            next = null;
+            activeUntil = now.plus(rotationInterval);
+            changed = true;
+        }
+        if (retired.removeIf(key -> !now.isBefore(key.publishedUntil()))) {
+            logger.info("Withdrew expired token signing keys.");
+            changed = true;
+        }
+        if (changed) {
+            keys = keySet(active, activeUntil, next, List.copyOf(retired));
+        }
+    }
+
+    /**
+     * Stops rotating keys.
+     */
+    @Override
+    public void close() {
+        if (rotator != null) {
+            rotator.shutdownNow();
+        }
+    }
+
+    /**
+     * Rotates keys, logging rather than propagating failures so that the schedule survives them.
+     */
+    private void rotateQuietly() {
+        try {
+            rotate();
+        } catch (RuntimeException e) {
+            logger.error("Token signing key rotation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds an immutable snapshot of the keys, including its JWKS document.
+     *
+     * @param active the key that signs new tokens
+     * @param activeUntil when the active key hands over to the next
+     * @param next the announced next key, or null
+     * @param retired keys that no longer sign but are still published
+     * @return the snapshot
+     */
+    private static KeySet keySet(SigningKey active, Instant activeUntil, SigningKey next, List<RetiredKey> retired) {
+        List<SigningKey> published = new ArrayList<>(retired.size() + 2);
+        published.add(active);
+        if (next != null) {
+            published.add(next);
+        }
+        for (RetiredKey key : retired) {
+            published.add(key.key());
+        }
+        List<Object> jwks = new ArrayList<>(published.size());
+        for (SigningKey key : published) {
+            jwks.add(key.getJwk());
+        }
+        try {
+            String jwksJson = MAPPER.writeValueAsString(Map.of("keys", jwks));
+            return new KeySet(active, activeUntil, next, retired, List.copyOf(published), jwksJson);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to write the JSON Web Key Set", e);
+        }
+    }
+
+    /**
+     * The current keys and the JWKS document that publishes them.
+     */
+    private record KeySet(SigningKey active, Instant activeUntil, SigningKey next, List<RetiredKey> retired,
+                          List<SigningKey> published, String jwksJson) {}
+
+    /**
+     * A key that no longer signs, and when it stops being published.
+     */
+    private record RetiredKey(SigningKey key, Instant publishedUntil) {}
+}
@@ -21,59 +21,294 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
-import java.sql.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Base64;
 
 import javax.crypto.SecretKey;
 
-import io.jsonwebtoken.Jwts;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+
+/**
+ * Mints the JSON Web Tokens handed to users at login.
+ * <p>
+ * Tokens are signed either with a shared HMAC secret or, in the asymmetric modes,
+ * with rotating key pairs whose public keys are published so that relying parties
+ * can verify tokens themselves. Everything that does not depend on the user is
+ * prepared once per key (see {@link SigningKey}), so minting a token costs one small
+ * JSON payload and one signature. Which claims the payload carries is set by the
+ * {@link TokenClaimProfile}. Tokens are standard compact JWS and verify with
+ * any JWT library. Instances are immutable and safe to use from many threads; a
+ * single instance is meant to be shared by the whole application.
+ */
+public class Tokenizer implements AutoCloseable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final String EMPTY_JWKS = "{\"keys\":[]}";
+
+    private final SigningKey hmacKey;
+
+    private final SigningKeyManager keyManager;
+
+    private final String issuer;
+
+    private final long ttlSeconds;
+
+    private final TokenClaimProfile claimProfile;
+
+    private final Locator<Key> keyLocator = new VerificationKeyLocator();
+
+    /**
+     * Constructs a Tokenizer from the token settings in the given configuration.
+     *
+     * @param config the application configuration
+     * @throws ConfigurationException if the HMAC token secret is not valid Base64 or is shorter than 256 bits
+     */
+    public Tokenizer(ConfigurationManager config) {
+        this(hmacKey(config), keyManager(config), config.getTokenIssuer(),
+                Duration.ofMinutes(config.getTokenTtlMinutes()), config.getTokenClaimProfile());
+    }
 
-public class Tokenizer {
+    /**
+     * Constructs a Tokenizer that signs with a shared HMAC secret and writes every claim.
+     *
+     * @param signingKey the HMAC key tokens are signed with, at least 256 bits long
+     * @param issuer the issuer claim written into every token
+     * @param ttl how long a minted token stays valid, at least one second
+     */
+    public Tokenizer(SecretKey signingKey, String issuer, Duration ttl) {
+        this(signingKey, issuer, ttl, TokenClaimProfile.FULL);
+    }
+
+    /**
+     * Constructs a Tokenizer that signs with a shared HMAC secret.
+     *
+     * @param signingKey the HMAC key tokens are signed with, at least 256 bits long
+     * @param issuer the issuer claim written into tokens whose profile includes it
+     * @param ttl how long a minted token stays valid, at least one second
+     * @param claimProfile the claims written into every token
+     */
+    public Tokenizer(SecretKey signingKey, String issuer, Duration ttl, TokenClaimProfile claimProfile) {
+        this(SigningKey.hmac(signingKey), null, issuer, ttl, claimProfile);
+    }
 
-    public static final String SECRET_KEY = "RockertSoftwareRocks2025ThisIsNotSecureEnough";
+    /**
+     * Constructs a Tokenizer that signs with the active key of a key manager and writes every claim.
+     *
+     * @param keyManager the manager of the rotating key pairs tokens are signed with
+     * @param issuer the issuer claim written into every token
+     * @param ttl how long a minted token stays valid, at least one second
+     */
+    public Tokenizer(SigningKeyManager keyManager, String issuer, Duration ttl) {
+        this(keyManager, issuer, ttl, TokenClaimProfile.FULL);
+    }
 
-    public static String tokenize(Credentials userCredentials) {
+    /**
+     * Constructs a Tokenizer that signs with the active key of a key manager.
+     *
+     * @param keyManager the manager of the rotating key pairs tokens are signed with
+     * @param issuer the issuer claim written into tokens whose profile includes it
+     * @param ttl how long a minted token stays valid, at least one second
+     * @param claimProfile the claims written into every token
+     */
+    public Tokenizer(SigningKeyManager keyManager, String issuer, Duration ttl, TokenClaimProfile claimProfile) {
+        this(null, keyManager, issuer, ttl, claimProfile);
+    }
+
+    private Tokenizer(SigningKey hmacKey, SigningKeyManager keyManager, String issuer, Duration ttl,
+                      TokenClaimProfile claimProfile) {
+        if ((hmacKey == null && keyManager == null) || issuer == null || ttl == null || claimProfile == null) {
+            throw new IllegalArgumentException("Signing key, issuer, lifetime and claim profile cannot be null");
+        }
+        if (ttl.getSeconds() <= 0) {
+            throw new IllegalArgumentException("Token lifetime must be at least one second");
+        }
+        this.hmacKey = hmacKey;
+        this.keyManager = keyManager;
+        this.issuer = issuer;
+        this.ttlSeconds = ttl.getSeconds();
+        this.claimProfile = claimProfile;
+    }
+
+    /**
+     * Mints a signed token carrying the user's credentials.
+     *
+     * @param userCredentials the credentials of the user who logged in
+     * @return the compact, signed JWT
+     */
+    public String tokenize(Credentials userCredentials) {
         // Check for null credentials
         if(userCredentials == null) {
             throw new IllegalArgumentException("User credentials cannot be null");
         }
+        SigningKey signingKey = keyManager != null ? keyManager.getActiveKey() : hmacKey;
+        return signingKey.sign(BASE64URL.encode(claims(userCredentials)));
+    }
 
-        // Turn the secret key string into a SecretKey object
-        SecretKey jwtSecretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    /**
+     * Gets a key locator that finds the key any token minted here must be verified
+     * with, for in-process verification. It finds nothing for tokens signed by others.
+     * @return The verification key locator.
+     */
+    public Locator<Key> getKeyLocator() {
+        return keyLocator;
+    }
 
-        // Parse user information from Credentials
-        int id = userCredentials.getId();
+    /**
+     * Gets the issuer claim tokens must carry, which is only written by profiles that include it.
+     * @return The token issuer, or null if tokens are minted without one.
+     */
+    public String getIssuer() {
+        return claimProfile == TokenClaimProfile.MINIMAL ? null : issuer;
+    }
+
+    /**
+     * Gets the set of claims written into every token.
+     * @return The token claim profile.
+     */
+    public TokenClaimProfile getClaimProfile() {
+        return claimProfile;
+    }
+
+    /**
+     * Gets the public keys relying parties verify tokens with, as a JSON Web Key Set.
+     * The set is empty when tokens are signed with a shared HMAC secret.
+     * @return The JWKS document.
+     */
+    public String getJwksJson() {
+        return keyManager != null ? keyManager.getJwksJson() : EMPTY_JWKS;
+    }
+
+    /**
+     * Stops rotating signing keys.
+     */
+    @Override
+    public void close() {
+        if (keyManager != null) {
+            keyManager.close();
+        }
+    }
+
+    /**
+     * Serialises the claims of the configured profile. Null claims are left out, as jjwt does.
+     *
+     * @param userCredentials the credentials of the user who logged in
+     * @return the UTF-8 JSON claim set
+     */
+    private byte[] claims(Credentials userCredentials) {
         String fName = userCredentials.getFirstName();
         String lName = userCredentials.getLastName();
-        String loc = userCredentials.getLocation();
-        String dept = userCredentials.getDepartment();
-        String title = userCredentials.getTitle();
-
-        // Set parameters for JWT token
-        Date now = new Date(System.currentTimeMillis());
-        Date expiry = new Date(now.getTime() + TimeUnit.MINUTES.toMillis(60));
-        Map<String, Object> claims = new HashMap<>();
-
-        claims.put("id", id);
-        claims.put("first_name", fName);
-        claims.put("last_name", lName);
-        claims.put("location", loc);
-        claims.put("department", dept);
-        claims.put("title", title);
-
-        // Build the JWT token
-        String token =  Jwts.builder()
-                            .issuer("Auth Service")
-                            .claims(claims)
-                            .subject((fName + " " + lName))
-                            .issuedAt(now)
-                            .expiration(expiry)
-                            .signWith(jwtSecretKey)
-                            .compact();
-        return token;
+        long now = System.currentTimeMillis() / 1000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("id", userCredentials.getId());
+            json.writeNumberField("exp", now + ttlSeconds);
+            if (claimProfile != TokenClaimProfile.MINIMAL) {
+                json.writeStringField("iss", issuer);
+                writeClaim(json, "first_name", fName);
+                writeClaim(json, "last_name", lName);
+                json.writeNumberField("iat", now);
+            }
+            if (claimProfile == TokenClaimProfile.FULL) {
+                writeClaim(json, "location", userCredentials.getLocation());
+                writeClaim(json, "department", userCredentials.getDepartment());
+                writeClaim(json, "title", userCredentials.getTitle());
+                json.writeStringField("sub", fName + " " + lName);
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write token claims", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a string claim unless it is null.
+     *
+     * @param json the claim set being written
+     * @param name the claim name
+     * @param value the claim value, or null to leave the claim out
+     * @throws IOException if the claim cannot be written
+     */
+    private static void writeClaim(JsonGenerator json, String name, String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Decodes the configured token secret into an HMAC key, if tokens are signed with one.
+     *
+     * @param config the application configuration
+     * @return the signing key, or null for an asymmetric algorithm
+     * @throws ConfigurationException if the secret is not valid Base64 or is shorter than 256 bits
+     */
+    private static SigningKey hmacKey(ConfigurationManager config) {
+        if (config == null) {
+            throw new IllegalArgumentException("ConfigurationManager cannot be null");
+        }
+        if (config.getTokenSigningAlgorithm() != TokenSigningAlgorithm.HMAC) {
+            return null;
+        }
+        try {
+            return SigningKey.hmac(Keys.hmacShaKeyFor(Decoders.BASE64.decode(config.getTokenSecret())));
+        } catch (DecodingException | WeakKeyException e) {
+            LoggerFactory.getEventLogger().error("Token secret must be Base64 and at least 256 bits long.");
+            throw new ConfigurationException("Token secret must be Base64 and at least 256 bits long.", e);
+        }
+    }
+
+    /**
+     * Creates the manager of rotating key pairs, if tokens are signed with an asymmetric algorithm.
+     *
+     * @param config the application configuration
+     * @return the key manager, or null for HMAC
+     * @throws ConfigurationException if the overlap window is not shorter than the rotation interval
+     */
+    private static SigningKeyManager keyManager(ConfigurationManager config) {
+        TokenSigningAlgorithm algorithm = config.getTokenSigningAlgorithm();
+        if (algorithm == TokenSigningAlgorithm.HMAC) {
+            return null;
+        }
+        Duration rotationInterval = Duration.ofHours(config.getTokenSigningRotationHours());
+        Duration overlap = Duration.ofMinutes(config.getTokenSigningOverlapMinutes());
+        if (overlap.compareTo(rotationInterval) >= 0) {
+            LoggerFactory.getEventLogger().error("Token signing overlapMinutes must be shorter than rotationHours.");
+            throw new ConfigurationException("Token signing overlapMinutes must be shorter than rotationHours.");
+        }
+        return new SigningKeyManager(algorithm, rotationInterval, overlap, Duration.ofMinutes(config.getTokenTtlMinutes()));
+    }
+
+    /**
+     * Finds the key a token minted here is verified with: the HMAC secret for tokens
+     * without a key ID, or the published key named by the token's {@code kid}.
+     */
+    private final class VerificationKeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String keyId = header.getKeyId();
+            if (keyManager == null) {
+                return keyId == null ? hmacKey.getVerificationKey() : null;
+            }
+            SigningKey key = keyId == null ? null : keyManager.findKey(keyId);
+            return key == null ? null : key.getVerificationKey();
+        }
     }
 }
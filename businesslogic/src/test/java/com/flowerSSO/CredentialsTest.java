@@ -127,5 +127,34 @@ public class CredentialsTest {
         assertEquals(expected, testCredentials.getLocation());
     }
 
+    @Test
+    public void testInjectedSanitizerSharedWithNamesAndCopies() {
+        CountingSanitizer sanitizer = new CountingSanitizer();
+        Credentials credentials = new Credentials(sanitizer, new PasswordHasherImpl());
+        credentials.setFirstName("Timothee");
+        credentials.setLastName("Greswell");
+        credentials.setTitle("Manager");
+
+        Credentials copy = new Credentials(credentials);
+        copy.setFirstName("Tim");
+        copy.setLocation("Japan");
+
+        assertEquals(5, sanitizer.calls);
+        assertEquals("Timothee", credentials.getFirstName());
+        assertEquals("Tim", copy.getFirstName());
+        assertEquals("Greswell", copy.getLastName());
+    }
+
+    /**
+     * Sanitizer that counts the inputs it cleans.
+     */
+    private static final class CountingSanitizer extends XssSanitizerImpl {
+        private int calls;
 
+        @Override
+        public String sanitizeInput(String input) {
+            calls++;
+            return super.sanitizeInput(input);
+        }
+    }
 }
@@ -1,14 +1,20 @@
 package com.flowerSSO;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class LoginCredentialsTest {
 
     private LoginCredentials credentials = null;
@@ -127,4 +133,64 @@ public class LoginCredentialsTest {
         assertTrue(credentials.getTempPassword().startsWith("$2"));
     }
 
+    @Test
+    void testSharedPasswordHasherUsedByNewInstances() {
+        PasswordHasher original = LoginCredentials.getSharedPasswordHasher();
+        try (BoundedPasswordHasher bounded = new BoundedPasswordHasher(new PasswordHasherImpl(), 1, 1)) {
+            LoginCredentials.setSharedPasswordHasher(bounded);
+            LoginCredentials login = new LoginCredentials("good@email.com", "goodPassword123");
+
+            assertTrue(login.verifyPassword("goodPassword123"));
+            assertEquals(2, bounded.getCompletedCount());
+        } finally {
+            LoginCredentials.setSharedPasswordHasher(original);
+        }
+    }
+
+    @Test
+    void testNullSharedPasswordHasher() {
+        assertThrows(IllegalArgumentException.class, () -> LoginCredentials.setSharedPasswordHasher(null));
+    }
+
+    @Test
+    void testJsonPasswordKeptOnlyAsSubmittedPlaintext() throws Exception {
+        LoginCredentials login = new ObjectMapper().readValue(
+                "{\"email\": \"good@email.com\", \"password\": \"goodPassword123\"}", LoginCredentials.class);
+
+        assertEquals("good@email.com", login.getEmail());
+        assertNull(login.getPassword());
+        assertEquals("goodPassword123", login.getSubmittedPassword());
+        assertFalse(login.toString().contains("goodPassword123"));
+
+        login.clearSubmittedPassword();
+        assertNull(login.getSubmittedPassword());
+    }
+
+    @Test
+    void testSubmittedPasswordVerifiedOnce() {
+        AtomicInteger verifies = new AtomicInteger();
+        PasswordHasher hasher = new PasswordHasherImpl(new BCryptPasswordHashAlgorithm(4)) {
+            @Override
+            public boolean verify(String plaintext, String hashed) {
+                verifies.incrementAndGet();
+                return super.verify(plaintext, hashed);
+            }
+        };
+        LoginCredentials login = new LoginCredentials(XssSanitizerImpl.getInstance(), hasher);
+        login.setSubmittedPassword("goodPassword123");
+
+        assertTrue(login.verifySubmittedPassword(hasher.hash("goodPassword123")));
+        assertEquals(1, verifies.get());
+        assertFalse(login.verifySubmittedPassword(hasher.hash("otherPassword123")));
+        assertEquals(2, verifies.get());
+
+        // Unknown users still cost one verification
+        assertFalse(login.verifySubmittedPassword(null));
+        assertEquals(3, verifies.get());
+
+        assertThrows(IllegalArgumentException.class, () -> login.setSubmittedPassword("short"));
+        login.clearSubmittedPassword();
+        assertFalse(login.verifySubmittedPassword(hasher.hash("goodPassword123")));
+        assertEquals(3, verifies.get());
+    }
 }
@@ -0,0 +1,135 @@
+package com.flowerSSO;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+
+public class SigningKeyManagerTest {
+
+    private static final Duration ROTATION = Duration.ofHours(24);
+    private static final Duration OVERLAP = Duration.ofHours(2);
+    private static final Duration TOKEN_TTL = Duration.ofHours(1);
+
+    private MutableClock clock = null;
+    private SigningKeyManager keyManager = null;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        keyManager = new SigningKeyManager(TokenSigningAlgorithm.ED25519, ROTATION, OVERLAP, TOKEN_TTL, clock, null);
+    }
+
+    @Test
+    public void testNextKeyPublishedOneOverlapBeforeHandover() {
+        SigningKey first = keyManager.getActiveKey();
+
+        clock.advance(ROTATION.minus(OVERLAP).minusSeconds(1));
+        keyManager.rotate();
+        assertEquals(1, keyManager.getPublishedKeys().size());
+
+        clock.advance(Duration.ofSeconds(1));
+        keyManager.rotate();
+        assertSame(first, keyManager.getActiveKey());
+        assertEquals(2, keyManager.getPublishedKeys().size());
+        SigningKey next = keyManager.getPublishedKeys().get(1);
+        assertNotEquals(first.getKeyId(), next.getKeyId());
+
+        clock.advance(OVERLAP);
+        keyManager.rotate();
+        assertSame(next, keyManager.getActiveKey());
+        assertSame(first, keyManager.findKey(first.getKeyId()));
+    }
+
+    @Test
+    public void testRetiredKeyWithdrawnAfterItsTokensExpire() {
+        SigningKey first = keyManager.getActiveKey();
+        clock.advance(ROTATION.minus(OVERLAP));
+        keyManager.rotate();
+        clock.advance(OVERLAP);
+        keyManager.rotate();
+
+        clock.advance(TOKEN_TTL.plus(OVERLAP).minusSeconds(1));
+        keyManager.rotate();
+        assertSame(first, keyManager.findKey(first.getKeyId()));
+
+        clock.advance(Duration.ofSeconds(1));
+        keyManager.rotate();
+        assertNull(keyManager.findKey(first.getKeyId()));
+        assertEquals(1, keyManager.getPublishedKeys().size());
+    }
+
+    @Test
+    public void testJwksListsPublishedKeys() {
+        clock.advance(ROTATION.minus(OVERLAP));
+        keyManager.rotate();
+
+        String jwks = keyManager.getJwksJson();
+
+        for (SigningKey key : keyManager.getPublishedKeys()) {
+            assertTrue(jwks.contains("\"kid\":\"" + key.getKeyId() + "\""));
+        }
+        assertTrue(jwks.contains("\"crv\":\"Ed25519\""));
+        assertTrue(!jwks.contains("\"d\""));
+    }
+
+    @Test
+    public void testUnknownKey() {
+        assertNull(keyManager.findKey("unknown"));
+        assertNull(keyManager.findKey(null));
+    }
+
+    @Test
+    public void testHmacRejected() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new SigningKeyManager(TokenSigningAlgorithm.HMAC, ROTATION, OVERLAP, TOKEN_TTL, clock, null);
+        });
+    }
+
+    @Test
+    public void testOverlapLongerThanRotation() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new SigningKeyManager(TokenSigningAlgorithm.ES256, OVERLAP, ROTATION, TOKEN_TTL, clock, null);
+        });
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.flowerSSO;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * JMH benchmark of token minting throughput on a single thread, i.e. tokens per
+ * second per core on the login path.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath; the GC profiler reports
+ * allocation per token as {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final String SECRET = "RockertSoftwareRocks2025ThisIsNotSecureEnough";
+    private static final String ISSUER = "Auth Service";
+
+    private SecretKey signingKey;
+    private Tokenizer tokenizer;
+    private Tokenizer ed25519Tokenizer;
+    private Credentials userCredentials;
+
+    @Setup
+    public void setup() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        tokenizer = new Tokenizer(signingKey, ISSUER, Duration.ofMinutes(60));
+        ed25519Tokenizer = new Tokenizer(new SigningKeyManager(TokenSigningAlgorithm.ED25519,
+                Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60)), ISSUER, Duration.ofMinutes(60));
+        userCredentials = new Credentials();
+        userCredentials.setId(31);
+        userCredentials.setFirstName("Timothee");
+        userCredentials.setLastName("Greswell");
+        userCredentials.setLocation("Japan");
+        userCredentials.setDepartment("Information Technology");
+        userCredentials.setTitle("Manager");
+    }
+
+    /**
+     * The original path: the key is decoded and rebuilt and a claims HashMap filled
+     * for every token.
+     */
+    @Benchmark
+    public String perCallKey() {
+        SecretKey jwtSecretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        String fName = userCredentials.getFirstName();
+        String lName = userCredentials.getLastName();
+        Date now = new Date(System.currentTimeMillis());
+        Date expiry = new Date(now.getTime() + TimeUnit.MINUTES.toMillis(60));
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", userCredentials.getId());
+        claims.put("first_name", fName);
+        claims.put("last_name", lName);
+        claims.put("location", userCredentials.getLocation());
+        claims.put("department", userCredentials.getDepartment());
+        claims.put("title", userCredentials.getTitle());
+        return Jwts.builder()
+                   .issuer(ISSUER)
+                   .claims(claims)
+                   .subject(fName + " " + lName)
+                   .issuedAt(now)
+                   .expiration(expiry)
+                   .signWith(jwtSecretKey)
+                   .compact();
+    }
+
+    /**
+     * The key decoded once and the claims chained straight into jjwt's builder,
+     * which still looks up and initialises a new Mac for every token.
+     */
+    @Benchmark
+    public String sharedKeyBuilder() {
+        String fName = userCredentials.getFirstName();
+        String lName = userCredentials.getLastName();
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                   .issuer(ISSUER)
+                   .claim("id", userCredentials.getId())
+                   .claim("first_name", fName)
+                   .claim("last_name", lName)
+                   .claim("location", userCredentials.getLocation())
+                   .claim("department", userCredentials.getDepartment())
+                   .claim("title", userCredentials.getTitle())
+                   .subject(fName + " " + lName)
+                   .issuedAt(new Date(now))
+                   .expiration(new Date(now + TimeUnit.MINUTES.toMillis(60)))
+                   .signWith(signingKey)
+                   .compact();
+    }
+
+    /**
+     * The current path: a shared Tokenizer with a precomputed header and a
+     * per-thread Mac already initialised with the key.
+     */
+    @Benchmark
+    public String sharedTokenizer() {
+        return tokenizer.tokenize(userCredentials);
+    }
+
+    /**
+     * The current path signing with a published Ed25519 key instead of the HMAC secret.
+     */
+    @Benchmark
+    public String sharedTokenizerEd25519() {
+        return ed25519Tokenizer.tokenize(userCredentials);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ed25519Tokenizer.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenizerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
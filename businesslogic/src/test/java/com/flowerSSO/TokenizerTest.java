@@ -0,0 +1,252 @@
+package com.flowerSSO;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Set;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+public class TokenizerTest {
+
+    private final SecretKey signingKey = Jwts.SIG.HS256.key().build();
+    private Tokenizer tokenizer = null;
+    private Credentials userCredentials = null;
+
+    @BeforeEach
+    void setUp() {
+        tokenizer = new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60));
+        userCredentials = new Credentials();
+        userCredentials.setId(31);
+        userCredentials.setFirstName("Timothee");
+        userCredentials.setLastName("Greswell");
+        userCredentials.setLocation("Japan");
+        userCredentials.setDepartment("Information Technology");
+        userCredentials.setTitle("Manager");
+    }
+
+    @Test
+    public void testTokenClaims() {
+        Claims claims = Jwts.parser()
+                            .verifyWith(signingKey)
+                            .requireIssuer("Auth Service")
+                            .build()
+                            .parseSignedClaims(tokenizer.tokenize(userCredentials))
+                            .getPayload();
+
+        assertEquals(31, claims.get("id", Integer.class));
+        assertEquals("Timothee", claims.get("first_name"));
+        assertEquals("Greswell", claims.get("last_name"));
+        assertEquals("Japan", claims.get("location"));
+        assertEquals("Information Technology", claims.get("department"));
+        assertEquals("Manager", claims.get("title"));
+        assertEquals("Timothee Greswell", claims.getSubject());
+        long lifetime = claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+        assertEquals(Duration.ofMinutes(60).toMillis(), lifetime);
+    }
+
+    @Test
+    public void testAlgorithmFollowsKeyLength() {
+        SecretKey longKey = Jwts.SIG.HS512.key().build();
+        String token = new Tokenizer(longKey, "Auth Service", Duration.ofMinutes(60)).tokenize(userCredentials);
+
+        Jws<Claims> jws = Jwts.parser().verifyWith(longKey).build().parseSignedClaims(token);
+
+        assertEquals("HS512", jws.getHeader().getAlgorithm());
+        assertEquals("Timothee Greswell", jws.getPayload().getSubject());
+    }
+
+    @Test
+    public void testEscapedClaims() {
+        userCredentials.setTitle("Manager \"Ops\" \u00e9quipe");
+
+        Claims claims = Jwts.parser()
+                            .verifyWith(signingKey)
+                            .build()
+                            .parseSignedClaims(tokenizer.tokenize(userCredentials))
+                            .getPayload();
+
+        assertEquals(userCredentials.getTitle(), claims.get("title"));
+    }
+
+    @Test
+    public void testWeakKey() {
+        SecretKey weakKey = new SecretKeySpec(new byte[16], "HmacSHA256");
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Tokenizer(weakKey, "Auth Service", Duration.ofMinutes(60));
+        });
+    }
+
+    @Test
+    public void testNullCredentials() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            tokenizer.tokenize(null);
+        });
+    }
+
+    @Test
+    public void testNonPositiveLifetime() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Tokenizer(signingKey, "Auth Service", Duration.ZERO);
+        });
+    }
+
+    @Test
+    public void testConfiguredTokenizer() {
+        ConfigurationManager config = mock(ConfigurationManager.class);
+        when(config.getTokenSigningAlgorithm()).thenReturn(TokenSigningAlgorithm.HMAC);
+        when(config.getTokenSecret()).thenReturn("RockertSoftwareRocks2025ThisIsNotSecureEnough");
+        when(config.getTokenIssuer()).thenReturn("Auth Service");
+        when(config.getTokenTtlMinutes()).thenReturn(60);
+        when(config.getTokenClaimProfile()).thenReturn(TokenClaimProfile.FULL);
+
+        Tokenizer configured = new Tokenizer(config);
+        Claims claims = Jwts.parser()
+                            .keyLocator(configured.getKeyLocator())
+                            .requireIssuer("Auth Service")
+                            .build()
+                            .parseSignedClaims(configured.tokenize(userCredentials))
+                            .getPayload();
+
+        assertEquals("Timothee Greswell", claims.getSubject());
+        assertEquals("{\"keys\":[]}", configured.getJwksJson());
+    }
+
+    @Test
+    public void testAsymmetricTokens() {
+        for (TokenSigningAlgorithm algorithm : new TokenSigningAlgorithm[] {TokenSigningAlgorithm.ES256, TokenSigningAlgorithm.ED25519}) {
+            SigningKeyManager keyManager = new SigningKeyManager(algorithm, Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60));
+            try (Tokenizer asymmetric = new Tokenizer(keyManager, "Auth Service", Duration.ofMinutes(60))) {
+                SigningKey activeKey = keyManager.getActiveKey();
+
+                Jws<Claims> jws = Jwts.parser()
+                                      .verifyWith((PublicKey) activeKey.getVerificationKey())
+                                      .build()
+                                      .parseSignedClaims(asymmetric.tokenize(userCredentials));
+
+                assertEquals(activeKey.getAlgorithm(), jws.getHeader().getAlgorithm());
+                assertEquals(activeKey.getKeyId(), jws.getHeader().getKeyId());
+                assertEquals("Timothee Greswell", jws.getPayload().getSubject());
+                assertTrue(asymmetric.getJwksJson().contains(activeKey.getKeyId()));
+            }
+        }
+    }
+
+    @Test
+    public void testKeyLocatorIgnoresForeignKeys() {
+        SigningKeyManager keyManager = new SigningKeyManager(TokenSigningAlgorithm.ES256, Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60));
+        try (Tokenizer asymmetric = new Tokenizer(keyManager, "Auth Service", Duration.ofMinutes(60))) {
+            String hmacToken = tokenizer.tokenize(userCredentials);
+
+            assertThrows(UnsupportedJwtException.class, () -> {
+                Jwts.parser().keyLocator(asymmetric.getKeyLocator()).build().parseSignedClaims(hmacToken);
+            });
+        }
+    }
+
+    @Test
+    public void testWeakConfiguredSecret() {
+        ConfigurationManager config = mock(ConfigurationManager.class);
+        when(config.getTokenSigningAlgorithm()).thenReturn(TokenSigningAlgorithm.HMAC);
+        when(config.getTokenSecret()).thenReturn("dG9vU2hvcnQ=");
+
+        assertThrows(ConfigurationException.class, () -> {
+            new Tokenizer(config);
+        });
+    }
+
+    @Test
+    public void testMinimalProfile() {
+        Tokenizer minimal = new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60), TokenClaimProfile.MINIMAL);
+
+        Claims claims = Jwts.parser()
+                            .keyLocator(minimal.getKeyLocator())
+                            .build()
+                            .parseSignedClaims(minimal.tokenize(userCredentials))
+                            .getPayload();
+
+        assertEquals(Set.of("id", "exp"), claims.keySet());
+        assertEquals(31, claims.get("id", Integer.class));
+        assertNull(minimal.getIssuer());
+    }
+
+    @Test
+    public void testStandardProfile() {
+        Tokenizer standard = new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60), TokenClaimProfile.STANDARD);
+
+        Claims claims = Jwts.parser()
+                            .verifyWith(signingKey)
+                            .requireIssuer("Auth Service")
+                            .build()
+                            .parseSignedClaims(standard.tokenize(userCredentials))
+                            .getPayload();
+
+        assertEquals(Set.of("iss", "id", "first_name", "last_name", "iat", "exp"), claims.keySet());
+        assertEquals("Timothee", claims.get("first_name"));
+        assertEquals("Auth Service", standard.getIssuer());
+    }
+
+    @Test
+    public void testProfilesShrinkTokens() {
+        int full = tokenizer.tokenize(userCredentials).length();
+        int standard = new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60), TokenClaimProfile.STANDARD)
+                .tokenize(userCredentials).length();
+        int minimal = new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60), TokenClaimProfile.MINIMAL)
+                .tokenize(userCredentials).length();
+
+        assertTrue(minimal < standard && standard < full);
+    }
+
+    @Test
+    public void testTokensFitProfileLengths() {
+        Credentials shortest = new Credentials();
+        shortest.setId(1);
+        shortest.setFirstName("Al");
+        shortest.setLastName("Li");
+        Credentials longest = new Credentials();
+        longest.setId(Integer.MAX_VALUE);
+        longest.setFirstName("A".repeat(64));
+        longest.setLastName("B".repeat(64));
+        longest.setLocation("C".repeat(64));
+        longest.setDepartment("D".repeat(64));
+        longest.setTitle("E".repeat(64));
+
+        for (TokenClaimProfile profile : TokenClaimProfile.values()) {
+            String shortToken = new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60), profile).tokenize(shortest);
+            assertTrue(shortToken.length() >= profile.getMinTokenLength(), profile + " minimum");
+            for (TokenSigningAlgorithm algorithm : new TokenSigningAlgorithm[] {TokenSigningAlgorithm.ES256, TokenSigningAlgorithm.ED25519}) {
+                SigningKeyManager keyManager = new SigningKeyManager(algorithm, Duration.ofHours(24), Duration.ofHours(2), Duration.ofMinutes(60));
+                try (Tokenizer asymmetric = new Tokenizer(keyManager, "Auth Service", Duration.ofMinutes(60), profile)) {
+                    assertTrue(asymmetric.tokenize(longest).length() <= profile.getMaxTokenLength(), profile + " maximum");
+                }
+            }
+            String hs512Token = new Tokenizer(Jwts.SIG.HS512.key().build(), "Auth Service", Duration.ofMinutes(60), profile)
+                    .tokenize(longest);
+            assertTrue(hs512Token.length() <= profile.getMaxTokenLength(), profile + " maximum");
+        }
+    }
+
+    @Test
+    public void testNullClaimProfile() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Tokenizer(signingKey, "Auth Service", Duration.ofMinutes(60), null);
+        });
+        assertEquals(TokenClaimProfile.FULL, tokenizer.getClaimProfile());
+    }
+}
@@ -21,6 +21,8 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
+import java.util.List;
+
 /**
  * 
  * @author Ben Edens
@@ -114,6 +116,143 @@ public interface ConfigurationManager {
      */
     public abstract String getAuthServerUrl();
 
+    /**
+     * Get the URLs of all authentication server replicas.
+     * <p>
+     * Falls back to the single authentication server URL when no replica list is configured.
+     * @return The authentication server URLs.
+     */
+    public abstract List<String> getAuthServerUrls();
+
+    /**
+     * Get the number of consecutive failures after which an authentication server replica is ejected.
+     * @return Consecutive failure count.
+     */
+    public abstract int getAuthLbEjectAfterFailures();
+
+    /**
+     * Get the interval at which ejected authentication server replicas are probed.
+     * @return Probe interval in milliseconds.
+     */
+    public abstract int getAuthLbProbeIntervalMillis();
+
+    /**
+     * Get the maximum number of verified tokens held in the authentication cache.
+     * @return Maximum number of cached verifications.
+     */
+    public abstract int getAuthCacheMaxSize();
+
+    /**
+     * Get the maximum time in seconds a verified token is cached.
+     * <p>
+     * Entries never outlive the token's own expiry, whichever comes first.
+     * @return Maximum cache lifetime in seconds.
+     */
+    public abstract int getAuthCacheTtlSeconds();
+
+    /**
+     * Get the maximum number of recently rejected tokens remembered.
+     * @return Maximum negative cache size, 0 to disable.
+     */
+    public abstract int getAuthNegativeCacheMaxSize();
+
+    /**
+     * Get how long a rejected token is remembered and refused without verification.
+     * @return Negative cache lifetime in seconds.
+     */
+    public abstract int getAuthNegativeCacheTtlSeconds();
+
+    /**
+     * Get the maximum number of revoked tokens held in-process.
+     * @return Maximum revocation list size.
+     */
+    public abstract int getAuthRevocationMaxSize();
+
+    /**
+     * Get how long a revocation is held for a token without an expiry claim.
+     * @return Maximum revocation lifetime in seconds.
+     */
+    public abstract int getAuthRevocationMaxTtlSeconds();
+
+    /**
+     * Get the maximum number of tokens accepted by a single batch verification request.
+     * @return Maximum batch size.
+     */
+    public abstract int getVerificationBatchMaxSize();
+
+    /**
+     * Get the strategy used to verify user tokens.
+     * @return The authentication mode.
+     */
+    public abstract AuthenticationMode getAuthenticationMode();
+
+    /**
+     * Get the maximum time in milliseconds to wait for a connection to the authentication server.
+     * @return Connect timeout in milliseconds.
+     */
+    public abstract int getAuthServerConnectTimeoutMillis();
+
+    /**
+     * Get the maximum time in milliseconds to wait for the authentication server to respond.
+     * @return Request timeout in milliseconds.
+     */
+    public abstract int getAuthServerRequestTimeoutMillis();
+
+    /**
+     * Get the maximum time a token verification may take, including any hedged request.
+     * @return Verification deadline in milliseconds.
+     */
+    public abstract int getAuthResilienceDeadlineMillis();
+
+    /**
+     * Get the delay after which a slow token verification is hedged with a second request.
+     * Should be set near the auth server's p95 latency.
+     * @return Hedge delay in milliseconds, 0 to disable hedging.
+     */
+    public abstract int getAuthResilienceHedgeDelayMillis();
+
+    /**
+     * Get the number of recent auth server calls the circuit breaker computes its rates over.
+     * @return Sliding window size in calls.
+     */
+    public abstract int getAuthBreakerWindowSize();
+
+    /**
+     * Get the number of calls the circuit breaker must observe before it may trip.
+     * @return Minimum number of calls.
+     */
+    public abstract int getAuthBreakerMinimumCalls();
+
+    /**
+     * Get the percentage of failed auth server calls at which the circuit breaker trips.
+     * @return Failure rate threshold in percent.
+     */
+    public abstract int getAuthBreakerFailureRatePercent();
+
+    /**
+     * Get the duration above which an auth server call is counted as slow by the circuit breaker.
+     * @return Slow call threshold in milliseconds.
+     */
+    public abstract int getAuthBreakerSlowCallMillis();
+
+    /**
+     * Get the percentage of slow auth server calls at which the circuit breaker trips.
+     * @return Slow call rate threshold in percent.
+     */
+    public abstract int getAuthBreakerSlowCallRatePercent();
+
+    /**
+     * Get how long the circuit breaker fails fast before letting trial calls through.
+     * @return Open state duration in milliseconds.
+     */
+    public abstract int getAuthBreakerOpenMillis();
+
+    /**
+     * Get the number of successful trial calls needed to close the circuit breaker again.
+     * @return Number of half-open trial calls.
+     */
+    public abstract int getAuthBreakerHalfOpenCalls();
+
     /**
      * Get the email username.
      * @return The email username.
@@ -161,4 +300,118 @@ public interface ConfigurationManager {
      * @return The email SSL trust.
      */
     public abstract String getEmailSslTrust();
+
+    /**
+     * Get the Base64-encoded secret tokens are signed with.
+     * @return The token signing secret.
+     */
+    public abstract String getTokenSecret();
+
+    /**
+     * Get the issuer written into, and expected in, the tokens this server mints.
+     * @return The token issuer.
+     */
+    public abstract String getTokenIssuer();
+
+    /**
+     * Get how long a minted token stays valid.
+     * @return Token lifetime in minutes.
+     */
+    public abstract int getTokenTtlMinutes();
+
+    /**
+     * Get the algorithm tokens are signed with.
+     * @return The token signing algorithm.
+     */
+    public abstract TokenSigningAlgorithm getTokenSigningAlgorithm();
+
+    /**
+     * Get how often a new signing key pair takes over (asymmetric algorithms only).
+     * @return Signing key rotation interval in hours.
+     */
+    public abstract int getTokenSigningRotationHours();
+
+    /**
+     * Get how long a signing key is published before it signs and after its last token expires.
+     * @return Signing key overlap window in minutes.
+     */
+    public abstract int getTokenSigningOverlapMinutes();
+
+    /**
+     * Get how long an unused refresh token stays valid; each refresh starts a new period.
+     * @return Refresh token idle timeout in days.
+     */
+    public abstract int getRefreshTokenIdleDays();
+
+    /**
+     * Get how long a chain of refresh tokens can be extended after the login that started it.
+     * @return Refresh token maximum lifetime in days.
+     */
+    public abstract int getRefreshTokenMaxLifetimeDays();
+
+    /**
+     * Get which claims are written into tokens, which also sets the token lengths accepted.
+     * @return The token claim profile.
+     */
+    public abstract TokenClaimProfile getTokenClaimProfile();
+
+    /**
+     * Get the number of threads that hash passwords; 0 means one per available processor.
+     * @return Password hashing thread count.
+     */
+    public abstract int getPasswordHashingThreads();
+
+    /**
+     * Get how many password hashes may wait for a free thread before requests are refused.
+     * @return Password hashing queue size.
+     */
+    public abstract int getPasswordHashingQueueSize();
+
+    /**
+     * Get the algorithm new passwords are hashed with.
+     * @return Password hashing algorithm.
+     */
+    public abstract PasswordHashingAlgorithm getPasswordHashingAlgorithm();
+
+    /**
+     * Get how long one password hash should take; the cost is calibrated to this at startup.
+     * @return Target hash time in milliseconds.
+     */
+    public abstract int getPasswordHashingTargetMillis();
+
+    /**
+     * Get how many outdated password hashes may wait to be rewritten after login before more are skipped.
+     * @return Password rehash queue size.
+     */
+    public abstract int getPasswordRehashQueueSize();
+
+    /**
+     * Get how many login and password reset requests one client address may make per period.
+     * @return Login requests allowed per client address.
+     */
+    public abstract int getLoginThrottleIpLimit();
+
+    /**
+     * Get the period over which the per-address login limit refills.
+     * @return Per-address period in seconds.
+     */
+    public abstract int getLoginThrottleIpPeriodSeconds();
+
+    /**
+     * Get how many login and password reset requests may name one email per period.
+     * @return Login requests allowed per email.
+     */
+    public abstract int getLoginThrottleEmailLimit();
+
+    /**
+     * Get the period over which the per-email login limit refills.
+     * @return Per-email period in seconds.
+     */
+    public abstract int getLoginThrottleEmailPeriodSeconds();
+
+    /**
+     * Get the most client addresses, and separately emails, tracked by the login throttle.
+     * @return Maximum tracked keys per limit.
+     */
+    public abstract int getLoginThrottleMaxKeys();
 }
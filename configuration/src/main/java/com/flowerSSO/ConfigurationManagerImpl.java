@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 
@@ -309,6 +311,206 @@ public class ConfigurationManagerImpl implements ConfigurationManager{
         return String.format("%s:%d/%s", authHost, authPort, authSubdomain);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getAuthServerUrls() {
+        String endpoints = propertiesFile.getProperty("authentication.endpoints");
+        if(endpoints == null || endpoints.isBlank()) {
+            return List.of(getAuthServerUrl());
+        }
+        List<String> authUrls = new ArrayList<>();
+        for (String endpoint : endpoints.split(",")) {
+            if (!endpoint.isBlank()) {
+                authUrls.add(endpoint.trim());
+            }
+        }
+        if(authUrls.isEmpty()) {
+            logger.error("Auth server endpoints are not configured.");
+            throw new ConfigurationException("Auth server endpoints are not configured.");
+        }
+        return List.copyOf(authUrls);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthLbEjectAfterFailures() {
+        return getPositiveInt("authentication.lb.ejectAfterFailures");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthLbProbeIntervalMillis() {
+        return getPositiveInt("authentication.lb.probeIntervalMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthCacheMaxSize() {
+        return getInt("authentication.cache.maxSize", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthCacheTtlSeconds() {
+        return getInt("authentication.cache.ttlSeconds", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthNegativeCacheMaxSize() {
+        return getInt("authentication.negativeCache.maxSize", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthNegativeCacheTtlSeconds() {
+        return getInt("authentication.negativeCache.ttlSeconds", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthRevocationMaxSize() {
+        return getPositiveInt("authentication.revocation.maxSize");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthRevocationMaxTtlSeconds() {
+        return getPositiveInt("authentication.revocation.maxTtlSeconds");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVerificationBatchMaxSize() {
+        return getPositiveInt("verification.batch.maxSize");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AuthenticationMode getAuthenticationMode() {
+        String authMode = propertiesFile.getProperty("authentication.mode");
+        if(authMode == null || authMode.isEmpty()) {
+            logger.error("Authentication mode is not configured.");
+            throw new ConfigurationException("Authentication mode is not configured.");
+        }
+        try {
+            return AuthenticationMode.valueOf(authMode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("Authentication mode must be one of remote, local or hybrid.");
+            throw new ConfigurationException("Authentication mode must be one of remote, local or hybrid.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthServerConnectTimeoutMillis() {
+        return getPositiveInt("authentication.http.connectTimeoutMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthServerRequestTimeoutMillis() {
+        return getPositiveInt("authentication.http.requestTimeoutMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthResilienceDeadlineMillis() {
+        return getPositiveInt("authentication.resilience.deadlineMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthResilienceHedgeDelayMillis() {
+        return getInt("authentication.resilience.hedgeDelayMillis", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerWindowSize() {
+        return getPositiveInt("authentication.resilience.breaker.windowSize");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerMinimumCalls() {
+        return getPositiveInt("authentication.resilience.breaker.minimumCalls");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerFailureRatePercent() {
+        return getPositiveInt("authentication.resilience.breaker.failureRatePercent");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerSlowCallMillis() {
+        return getPositiveInt("authentication.resilience.breaker.slowCallMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerSlowCallRatePercent() {
+        return getPositiveInt("authentication.resilience.breaker.slowCallRatePercent");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerOpenMillis() {
+        return getPositiveInt("authentication.resilience.breaker.openMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getAuthBreakerHalfOpenCalls() {
+        return getPositiveInt("authentication.resilience.breaker.halfOpenCalls");
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -419,6 +621,234 @@ public class ConfigurationManagerImpl implements ConfigurationManager{
         return emailSslTrust;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getTokenSecret() {
+        String tokenSecret = propertiesFile.getProperty("token.secret");
+        if(tokenSecret == null || tokenSecret.isEmpty()) {
+            logger.error("Token secret is not configured.");
+            throw new ConfigurationException("Token secret is not configured.");
+        }
+        return tokenSecret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getTokenIssuer() {
+        String tokenIssuer = propertiesFile.getProperty("token.issuer");
+        if(tokenIssuer == null || tokenIssuer.isEmpty()) {
+            logger.error("Token issuer is not configured.");
+            throw new ConfigurationException("Token issuer is not configured.");
+        }
+        return tokenIssuer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTokenTtlMinutes() {
+        return getPositiveInt("token.ttlMinutes");
+    }
+
+    /**
+     * Reads an integer property that must be at least 1.
+     *
+     * @param key the property key
+     * @return the property value
+     * @throws ConfigurationException if the property is missing, not an integer or below 1
+     */
+    private int getPositiveInt(String key) {
+        return getInt(key, 1);
+    }
+
+    /**
+     * Reads an integer property that must be at least the given minimum.
+     *
+     * @param key the property key
+     * @param min the smallest value accepted
+     * @return the property value
+     * @throws ConfigurationException if the property is missing, not an integer or below the minimum
+     */
+    private int getInt(String key, int min) {
+        String value = propertiesFile.getProperty(key);
+        if(value == null) {
+            logger.error("Property " + key + " is not configured.");
+            throw new ConfigurationException("Property " + key + " is not configured.");
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.error("Property " + key + " is not a valid integer.");
+            throw new ConfigurationException("Property " + key + " is not a valid integer.");
+        }
+        if(parsed < min) {
+            logger.error("Property " + key + " must be at least " + min + ".");
+            throw new ConfigurationException("Property " + key + " must be at least " + min + ".");
+        }
+        return parsed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TokenSigningAlgorithm getTokenSigningAlgorithm() {
+        String algorithm = propertiesFile.getProperty("token.signing.algorithm");
+        if(algorithm == null || algorithm.isEmpty()) {
+            logger.error("Token signing algorithm is not configured.");
+            throw new ConfigurationException("Token signing algorithm is not configured.");
+        }
+        try {
+            return TokenSigningAlgorithm.valueOf(algorithm.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("Token signing algorithm must be one of hmac, es256 or ed25519.");
+            throw new ConfigurationException("Token signing algorithm must be one of hmac, es256 or ed25519.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTokenSigningRotationHours() {
+        return getPositiveInt("token.signing.rotationHours");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTokenSigningOverlapMinutes() {
+        return getPositiveInt("token.signing.overlapMinutes");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRefreshTokenIdleDays() {
+        return getPositiveInt("token.refresh.idleDays");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRefreshTokenMaxLifetimeDays() {
+        return getPositiveInt("token.refresh.maxLifetimeDays");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TokenClaimProfile getTokenClaimProfile() {
+        String profile = propertiesFile.getProperty("token.claims.profile");
+        if(profile == null || profile.isEmpty()) {
+            logger.error("Token claim profile is not configured.");
+            throw new ConfigurationException("Token claim profile is not configured.");
+        }
+        try {
+            return TokenClaimProfile.valueOf(profile.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("Token claim profile must be one of minimal, standard or full.");
+            throw new ConfigurationException("Token claim profile must be one of minimal, standard or full.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPasswordHashingThreads() {
+        return getInt("password.hashing.threads", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPasswordHashingQueueSize() {
+        return getInt("password.hashing.queueSize", 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PasswordHashingAlgorithm getPasswordHashingAlgorithm() {
+        String algorithm = propertiesFile.getProperty("password.hashing.algorithm");
+        if(algorithm == null || algorithm.isEmpty()) {
+            logger.error("Password hashing algorithm is not configured.");
+            throw new ConfigurationException("Password hashing algorithm is not configured.");
+        }
+        try {
+            return PasswordHashingAlgorithm.valueOf(algorithm.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("Password hashing algorithm must be one of bcrypt, argon2id or scrypt.");
+            throw new ConfigurationException("Password hashing algorithm must be one of bcrypt, argon2id or scrypt.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPasswordHashingTargetMillis() {
+        return getPositiveInt("password.hashing.targetMillis");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPasswordRehashQueueSize() {
+        return getPositiveInt("password.hashing.rehashQueueSize");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginThrottleIpLimit() {
+        return getPositiveInt("login.throttle.ip.limit");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginThrottleIpPeriodSeconds() {
+        return getPositiveInt("login.throttle.ip.periodSeconds");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginThrottleEmailLimit() {
+        return getPositiveInt("login.throttle.email.limit");
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginThrottleEmailPeriodSeconds() {
+        return getPositiveInt("login.throttle.email.periodSeconds");
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginThrottleMaxKeys() {
+        return getPositiveInt("login.throttle.maxKeys");
+    }
 }
@@ -0,0 +1,72 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+/**
+ * Sets of claims the server can write into its tokens, from smallest to largest.
+ * Every token is sent with every request to a relying party, so the profile sets
+ * how many bytes each of those requests carries. Each profile also sets the token
+ * lengths accepted for it, which cover every signing algorithm.
+ */
+public enum TokenClaimProfile {
+
+    /**
+     * The user ID and expiry only. Relying parties get the user's identity and nothing else.
+     */
+    MINIMAL(90, 256),
+
+    /**
+     * The issuer, user ID, first and last name, and issue and expiry times.
+     */
+    STANDARD(150, 512),
+
+    /**
+     * Every claim: the standard claims plus location, department, title and a subject
+     * holding the user's full name.
+     */
+    FULL(170, 1024);
+
+    private final int minTokenLength;
+
+    private final int maxTokenLength;
+
+    TokenClaimProfile(int minTokenLength, int maxTokenLength) {
+        this.minTokenLength = minTokenLength;
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    /**
+     * Gets the length of the shortest token this profile can produce, rounded down.
+     * @return The minimum token length in characters.
+     */
+    public int getMinTokenLength() {
+        return minTokenLength;
+    }
+
+    /**
+     * Gets the length of the longest token this profile can produce, rounded up.
+     * @return The maximum token length in characters.
+     */
+    public int getMaxTokenLength() {
+        return maxTokenLength;
+    }
+}
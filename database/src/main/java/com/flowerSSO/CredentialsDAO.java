@@ -10,6 +10,11 @@ import java.util.List;
 
 public class CredentialsDAO {
 
+    /**
+     * Queue that rewrites outdated password hashes after logins; none until configured at startup.
+     */
+    private static volatile PasswordRehashQueue rehashQueue;
+
     private final Authenticator authenticator;
     private final Logger logger;
     private final Logger securityLogger;
@@ -64,8 +69,17 @@ public class CredentialsDAO {
         this(ConfigurationManagerImpl.getInstance());
     }
 
+    /**
+     * Sets the queue that rewrites outdated password hashes after successful logins.
+     *
+     * @param queue the rehash queue, or null to stop rehashing
+     */
+    public static void setRehashQueue(PasswordRehashQueue queue) {
+        rehashQueue = queue;
+    }
+
     public void insertCredentials(Credentials credentials, Token adminToken) {
-        logger.debug("insertCredentials called for email: " + credentials.getEmail());
+        logger.debug("insertCredentials called for email: {}", credentials.getEmail());
         
         if (!verifyIsAdmin(adminToken)) {
             securityLogger.warn("Unauthorized attempt to insert credentials for email: " + credentials.getEmail());
@@ -92,7 +106,7 @@ public class CredentialsDAO {
             statement.setString(9, credentials.getUserRole());
             
             statement.executeUpdate();
-            logger.info("Successfully inserted credentials for email: " + credentials.getEmail());
+            logger.info("Successfully inserted credentials for email: {}", credentials.getEmail());
 
         }
         catch (SQLException e) {
@@ -102,7 +116,7 @@ public class CredentialsDAO {
     }
 
     public void updateCredentials(Credentials credentials, Token adminToken) {
-        logger.debug("updateCredentials called for email: " + credentials.getEmail());
+        logger.debug("updateCredentials called for email: {}", credentials.getEmail());
 
        if (!verifyIsAdmin(adminToken)) {
             securityLogger.warn("Unauthorized attempt to update credentials for email: " + credentials.getEmail());
@@ -129,7 +143,7 @@ public class CredentialsDAO {
             statement.setString(9, credentials.getUserRole());
             
             statement.executeUpdate();
-            logger.info("Successfully updated credentials for email: " + credentials.getEmail());
+            logger.info("Successfully updated credentials for email: {}", credentials.getEmail());
 
         }
         catch (SQLException e) {
@@ -140,8 +154,8 @@ public class CredentialsDAO {
 
     public void updatePassword(String newPassword, Token userToken) {
         logger.debug("updatePassword called");
-        Credentials credentials = authenticator.authenticate(userToken);
-        logger.debug("Password update request for user ID: " + credentials.getId());
+        Credentials credentials = identify(userToken);
+        logger.debug("Password update request for user ID: {}", credentials.getId());
         credentials.setPassword(newPassword);
 
         try (Connection connection = DatabaseConnectionPool.getConnection()) {
@@ -152,7 +166,7 @@ public class CredentialsDAO {
             statement.setInt(2, credentials.getId());
 
             statement.executeUpdate();
-            logger.info("Successfully updated password for user ID: " + credentials.getId());
+            logger.info("Successfully updated password for user ID: {}", credentials.getId());
             securityLogger.info("Password changed for user ID: " + credentials.getId());
         } 
         catch (SQLException e) {
@@ -161,10 +175,52 @@ public class CredentialsDAO {
         }
     }
 
+    /**
+     * Replaces a user's password hash, but only if the stored hash is still the expected one,
+     * so a password changed since it was read is never overwritten.
+     *
+     * @param id the user's ID
+     * @param currentHash the hash expected to be stored
+     * @param newHash the replacement hash
+     * @return true if the hash was replaced
+     */
+    public boolean replacePasswordHash(int id, String currentHash, String newHash) {
+        logger.debug("replacePasswordHash called for user ID: {}", id);
+
+        try (Connection connection = DatabaseConnectionPool.getConnection()) {
+            String sql = "UPDATE Credentials SET password=? WHERE id=? AND password=?;";
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setString(1, newHash);
+            statement.setInt(2, id);
+            statement.setString(3, currentHash);
+            return statement.executeUpdate() == 1;
+        }
+        catch (SQLException e) {
+            logger.error("SQLException in replacePasswordHash for user ID: " + id + " - " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Hands a just-verified password to the rehash queue, which rewrites the stored hash in
+     * the background if it was made with an outdated algorithm or cost. Never hashes on the
+     * calling thread, so it adds no latency to the login.
+     *
+     * @param id the user's ID
+     * @param plaintext the password that was verified
+     * @param storedHash the hash it was verified against
+     */
+    void rehashIfNeeded(int id, String plaintext, String storedHash) {
+        PasswordRehashQueue queue = rehashQueue;
+        if (queue != null) {
+            queue.submitIfNeeded(id, plaintext, storedHash);
+        }
+    }
+
     public Credentials getCredentialsFromToken(Token userToken) {
         logger.debug("getCredentialsFromToken called");
-        Credentials credentials = authenticator.authenticate(userToken);
-        logger.debug("Retrieving credentials for user ID: " + credentials.getId());
+        Credentials credentials = identify(userToken);
+        logger.debug("Retrieving credentials for user ID: {}", credentials.getId());
 
         try (Connection connection = DatabaseConnectionPool.getConnection()) {
             logger.debug("Database connection obtained for getCredentialsFromToken");
@@ -185,9 +241,9 @@ public class CredentialsDAO {
                 credentials.setPassword(resultSet.getString("password"));
                 credentials.setIsAdmin(resultSet.getBoolean("isAdmin"));
                 credentials.setUserRole(resultSet.getString("userRole"));
-                logger.info("Successfully retrieved credentials for user ID: " + credentials.getId());
+                logger.info("Successfully retrieved credentials for user ID: {}", credentials.getId());
             } else {
-                logger.warn("No credentials found for user ID: " + credentials.getId());
+                logger.warn("No credentials found for user ID: {}", credentials.getId());
             }
         }
         catch (SQLException e) {
@@ -198,29 +254,40 @@ public class CredentialsDAO {
         return credentials;
     }
 
+    /**
+     * Logs a user in. The user's stored hash and profile are read by email in one indexed
+     * query, then the submitted password is verified exactly once, after the database
+     * connection has been returned. An unknown email is verified against a dummy hash so
+     * it takes as long as a wrong password. A hash made with outdated parameters is
+     * rewritten in the background. The submitted plaintext is cleared before returning.
+     *
+     * @param loginCredentials the email and submitted password
+     * @return the user's credentials, or null if the email or password is wrong
+     */
     public Credentials getCredentialsFromLogin(LoginCredentials loginCredentials) {
-        logger.debug("getCredentialsFromLogin called for email: " + loginCredentials.getEmail());
+        logger.debug("getCredentialsFromLogin called for email: {}", loginCredentials.getEmail());
 
         Credentials credentials = null;
+        String storedHash = null;
 
         try (Connection connection = DatabaseConnectionPool.getConnection()) {
             logger.debug("Database connection obtained for getCredentialsFromLogin");
             
-            String query = "SELECT Credentials.id, Credentials.firstName, Credentials.lastName, "
+            String query = "SELECT Credentials.id, Credentials.password, Credentials.firstName, Credentials.lastName, "
                         + "Titles.title, Departments.department, Locations.location, "
                         + "UserRoles.userRole FROM Credentials "
                         + "INNER JOIN Titles ON Credentials.titleID = Titles.id "
                         + "INNER JOIN Departments ON Credentials.departmentId = Departments.id "
                         + "INNER JOIN Locations ON Credentials.locationId = Locations.id "
                         + "INNER JOIN UserRoles ON Credentials.userRoleId = UserRoles.id "
-                        + "WHERE email=? AND password=?;";
+                        + "WHERE Credentials.email=?;";
 
             PreparedStatement statement = connection.prepareStatement(query);
             statement.setString(1, loginCredentials.getEmail());
-            statement.setString(2, loginCredentials.getPassword());
             ResultSet resultSet = statement.executeQuery();
             
             if (resultSet.next()) {
+                storedHash = resultSet.getString("password");
                 credentials = new Credentials();
                 credentials.setId(resultSet.getInt("id"));
                 credentials.setFirstName(resultSet.getString("firstName"));
@@ -229,19 +296,29 @@ public class CredentialsDAO {
                 credentials.setDepartment(resultSet.getString("department"));
                 credentials.setLocation(resultSet.getString("location"));
                 credentials.setUserRole(resultSet.getString("userRole"));
-                logger.info("Successfully retrieved credentials for email: " + loginCredentials.getEmail());
-                securityLogger.info("Successful login for email: " + loginCredentials.getEmail());
-            } else {
-                logger.warn("Failed to find credentials for email: " + loginCredentials.getEmail());
-                securityLogger.warn("Failed login attempt for email: " + loginCredentials.getEmail());
             }
         }
         catch (SQLException e) {
             logger.error("SQLException in getCredentialsFromLogin for email: " + loginCredentials.getEmail() + " - " + e.getMessage());
             e.printStackTrace();
+            loginCredentials.clearSubmittedPassword();
+            return null;
         }
 
-        return credentials;
+        try {
+            if (loginCredentials.verifySubmittedPassword(storedHash) && credentials != null) {
+                logger.info("Successfully retrieved credentials for email: {}", loginCredentials.getEmail());
+                securityLogger.info("Successful login for email: " + loginCredentials.getEmail());
+                rehashIfNeeded(credentials.getId(), loginCredentials.getSubmittedPassword(), storedHash);
+                return credentials;
+            }
+            logger.warn("Failed to find credentials for email: {}", loginCredentials.getEmail());
+            securityLogger.warn("Failed login attempt for email: " + loginCredentials.getEmail());
+            return null;
+        }
+        finally {
+            loginCredentials.clearSubmittedPassword();
+        }
     }
 
     public List<Credentials> getAllCredentials(Token adminToken) {
@@ -287,7 +364,7 @@ public class CredentialsDAO {
 
                 credList.add(credentials);
             }
-            logger.info("Successfully retrieved " + credList.size() + " credentials records");
+            logger.info("Successfully retrieved {} credentials records", credList.size());
         }
         catch (SQLException e) {
             logger.error("SQLException in getAllCredentials - " + e.getMessage());
@@ -298,7 +375,7 @@ public class CredentialsDAO {
     }
 
     public void deleteCredentials(int id, Token adminToken) {
-        logger.debug("deleteCredentials called for user ID: " + id);
+        logger.debug("deleteCredentials called for user ID: {}", id);
         
         if (!verifyIsAdmin(adminToken)) {
             securityLogger.warn("Unauthorized attempt to delete credentials for user ID: " + id);
@@ -311,7 +388,7 @@ public class CredentialsDAO {
             PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, id);
             statement.executeUpdate();
-            logger.info("Successfully deleted credentials for user ID: " + id);
+            logger.info("Successfully deleted credentials for user ID: {}", id);
             securityLogger.info("Admin deleted credentials for user ID: " + id);
         }
         catch (SQLException e) {
@@ -322,8 +399,8 @@ public class CredentialsDAO {
 
     public Boolean verifyIsAdmin(Token adminToken) {
         logger.debug("verifyIsAdmin called");
-        Credentials adminCredentials = authenticator.authenticate(adminToken);
-        logger.debug("Verifying admin status for user ID: " + adminCredentials.getId());
+        Credentials adminCredentials = identify(adminToken);
+        logger.debug("Verifying admin status for user ID: {}", adminCredentials.getId());
 
         try (Connection connection = DatabaseConnectionPool.getConnection()) {
             logger.debug("Database connection obtained for verifyIsAdmin");
@@ -334,7 +411,7 @@ public class CredentialsDAO {
 
             if (resultSet.next()) {
                 boolean isAdmin = resultSet.getBoolean("isAdmin");
-                logger.debug("Admin verification result for user ID " + adminCredentials.getId() + ": " + isAdmin);
+                logger.debug("Admin verification result for user ID {}: {}", adminCredentials.getId(), isAdmin);
                 if (isAdmin) {
                     securityLogger.info("Admin verification successful for user ID: " + adminCredentials.getId());
                 } else {
@@ -343,7 +420,7 @@ public class CredentialsDAO {
                 return isAdmin;
             }
             else {
-                logger.warn("User ID not found in verifyIsAdmin: " + adminCredentials.getId());
+                logger.warn("User ID not found in verifyIsAdmin: {}", adminCredentials.getId());
                 securityLogger.warn("Admin verification failed - user ID not found: " + adminCredentials.getId());
                 return false;
             }
@@ -356,6 +433,21 @@ public class CredentialsDAO {
         
     }
 
+    /**
+     * Identifies the user a token belongs to. A token whose signature has already been
+     * checked in-process is read from its claims instead of being authenticated again.
+     * 
+     * @param token the user's token
+     * @return the user's credentials
+     */
+    private Credentials identify(Token token) {
+        if (token != null && token.isVerified()) {
+            logger.debug("Reading identity from verified token claims");
+            return token.getClaims().toCredentials();
+        }
+        return authenticator.authenticate(token);
+    }
+
     // X Update all fields
     //      login cred for admin, cred and id for user
 
@@ -0,0 +1,187 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind queue that replaces outdated password hashes after successful logins.
+ * <p>
+ * When a login verifies a password whose stored hash was made with an older algorithm
+ * or cost, the plaintext is handed here and the login returns at once; a single
+ * background thread hashes it again and writes the new hash. The queue is bounded and
+ * each user is queued at most once, so work that does not fit is dropped and picked up
+ * again on that user's next login. Plaintext passwords are held only until their job runs.
+ */
+public class PasswordRehashQueue implements AutoCloseable {
+
+    /**
+     * Stores a new hash for a user.
+     */
+    @FunctionalInterface
+    public interface HashWriter {
+
+        /**
+         * Replaces a user's hash, but only if the stored hash is still the one that was verified,
+         * so a password changed in the meantime is never overwritten.
+         *
+         * @param id the user's ID
+         * @param currentHash the hash the password was verified against
+         * @param newHash the replacement hash
+         * @return true if the hash was replaced
+         */
+        boolean replace(int id, String currentHash, String newHash);
+    }
+
+    private final Logger logger = LoggerFactory.getSecurityLogger();
+
+    private final PasswordHasher hasher;
+    private final HashWriter writer;
+    private final ThreadPoolExecutor executor;
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder rewritten = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Constructs a rehash queue with its own background thread.
+     *
+     * @param hasher the hasher that decides whether a hash is outdated and makes the new one
+     * @param writer stores the new hashes
+     * @param capacity how many rehashes may wait before further ones are dropped
+     * @throws IllegalArgumentException if hasher or writer is null or capacity is not positive
+     */
+    public PasswordRehashQueue(PasswordHasher hasher, HashWriter writer, int capacity) {
+        if (hasher == null || writer == null) {
+            logger.error("Password rehash queue needs a hasher and a writer");
+            throw new IllegalArgumentException("Password hasher and hash writer cannot be null");
+        }
+        if (capacity <= 0) {
+            logger.error("Password rehash queue capacity must be positive");
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.hasher = hasher;
+        this.writer = writer;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues a rehash of a verified password if its stored hash is outdated. Never hashes
+     * on the calling thread.
+     *
+     * @param id the user's ID
+     * @param plaintext the password that was just verified
+     * @param currentHash the stored hash it was verified against
+     * @return true if a rehash was queued
+     */
+    public boolean submitIfNeeded(int id, String plaintext, String currentHash) {
+        if (!hasher.needsRehash(currentHash)) {
+            return false;
+        }
+        if (!pending.add(id)) {
+            logger.debug("Password rehash already queued for user ID: {}", id);
+            return false;
+        }
+        try {
+            executor.execute(() -> rehash(id, plaintext, currentHash));
+            logger.debug("Queued password rehash for user ID: {}", id);
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(id);
+            dropped.increment();
+            logger.debug("Password rehash queue is full, user ID {} will be rehashed on a later login", id);
+            return false;
+        }
+    }
+
+    private void rehash(int id, String plaintext, String currentHash) {
+        try {
+            String newHash = hasher.hash(plaintext);
+            if (writer.replace(id, currentHash, newHash)) {
+                rewritten.increment();
+                logger.info("Rehashed password for user ID: {}", id);
+            } else {
+                logger.debug("Password for user ID {} changed before it was rehashed", id);
+            }
+        } catch (PasswordHasherSaturatedException e) {
+            dropped.increment();
+            logger.debug("Password hashing is saturated, user ID {} will be rehashed on a later login", id);
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.error("Failed to rehash password for user ID: " + id + " - " + e.getMessage());
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    /**
+     * Gets the number of users whose rehash is queued or running.
+     * @return The pending rehash count.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the number of hashes replaced.
+     * @return The rewritten hash count.
+     */
+    public long getRewrittenCount() {
+        return rewritten.sum();
+    }
+
+    /**
+     * Gets the number of rehashes dropped because the queue or the hashing pool was full.
+     * @return The dropped rehash count.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the number of rehashes that failed with an error.
+     * @return The failed rehash count.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops the background thread, discarding queued rehashes.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,286 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Data access for refresh tokens, which let a client get a new access token without
+ * logging in again.
+ * <p>
+ * Refresh tokens are opaque, random and single-use. Only their SHA-256 hash is stored,
+ * so a refresh costs one indexed lookup rather than a password verification. Every
+ * refresh replaces the token with a new one from the same family, valid for a fresh
+ * idle period but never beyond the family's maximum lifetime. Presenting a token that
+ * has already been used means it was copied, so the whole family is revoked and the
+ * user has to log in again.
+ */
+public class RefreshTokenDAO {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final int TOKEN_LENGTH = 43;
+
+    private static final int FAMILY_BYTES = 16;
+
+    private final Logger logger = LoggerFactory.getEventLogger();
+    private final Logger securityLogger = LoggerFactory.getSecurityLogger();
+
+    private final Duration idleTimeout;
+
+    private final Duration maxLifetime;
+
+    /**
+     * Constructs a RefreshTokenDAO with the refresh token lifetimes in the given configuration.
+     *
+     * @param config the application configuration
+     */
+    public RefreshTokenDAO(ConfigurationManager config) {
+        this(Duration.ofDays(config.getRefreshTokenIdleDays()), Duration.ofDays(config.getRefreshTokenMaxLifetimeDays()));
+    }
+
+    /**
+     * Constructs a RefreshTokenDAO.
+     *
+     * @param idleTimeout how long an unused refresh token stays valid
+     * @param maxLifetime how long after login a family of refresh tokens can be extended
+     */
+    public RefreshTokenDAO(Duration idleTimeout, Duration maxLifetime) {
+        if (idleTimeout == null || maxLifetime == null || idleTimeout.isNegative() || idleTimeout.isZero()
+                || maxLifetime.compareTo(idleTimeout) < 0) {
+            throw new IllegalArgumentException("Idle timeout must be positive and no longer than the maximum lifetime");
+        }
+        this.idleTimeout = idleTimeout;
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * Issues the first refresh token of a new family, at login.
+     *
+     * @param userId the ID of the user who logged in
+     * @return the refresh token
+     * @throws AuthenticationServiceException if the token cannot be stored
+     */
+    public String issue(int userId) {
+        byte[] token = randomBytes(TOKEN_BYTES);
+        Instant now = Instant.now();
+        Instant familyExpiresAt = now.plus(maxLifetime);
+        try (Connection connection = DatabaseConnectionPool.getConnection()) {
+            insert(connection, token, randomBytes(FAMILY_BYTES), userId, now, familyExpiresAt);
+            logger.info("Issued refresh token for user ID: {}", userId);
+        } catch (SQLException e) {
+            logger.error("SQLException in issue for user ID: " + userId + " - " + e.getMessage());
+            throw new AuthenticationServiceException("Unable to issue refresh token.", e);
+        }
+        return BASE64URL.encodeToString(token);
+    }
+
+    /**
+     * Exchanges a refresh token for the user's credentials and a new refresh token.
+     * The presented token is used up; presenting it again revokes its whole family.
+     *
+     * @param refreshToken the refresh token
+     * @return the user's credentials and the new refresh token
+     * @throws AuthenticationException if the token is malformed, unknown, expired, revoked or already used
+     * @throws AuthenticationServiceException if the database cannot be reached
+     */
+    public RefreshResult refresh(String refreshToken) {
+        byte[] tokenHash = sha256(decode(refreshToken));
+        try (Connection connection = DatabaseConnectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                RefreshResult result = rotate(connection, tokenHash);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("SQLException in refresh - " + e.getMessage());
+            throw new AuthenticationServiceException("Unable to refresh token.", e);
+        }
+    }
+
+    /**
+     * Checks a refresh token and replaces it, within the caller's transaction.
+     *
+     * @param connection the connection, with auto-commit off
+     * @param tokenHash the hash of the presented token
+     * @return the user's credentials and the new refresh token
+     * @throws SQLException if a statement fails
+     */
+    private RefreshResult rotate(Connection connection, byte[] tokenHash) throws SQLException {
+        String query = "SELECT RefreshTokens.id, RefreshTokens.familyId, RefreshTokens.userId, "
+                    + "RefreshTokens.expiresAt, RefreshTokens.familyExpiresAt, RefreshTokens.usedAt, "
+                    + "RefreshTokens.revoked, Credentials.firstName, Credentials.lastName, "
+                    + "Titles.title, Departments.department, Locations.location, "
+                    + "UserRoles.userRole FROM RefreshTokens "
+                    + "INNER JOIN Credentials ON RefreshTokens.userId = Credentials.id "
+                    + "INNER JOIN Titles ON Credentials.titleID = Titles.id "
+                    + "INNER JOIN Departments ON Credentials.departmentId = Departments.id "
+                    + "INNER JOIN Locations ON Credentials.locationId = Locations.id "
+                    + "INNER JOIN UserRoles ON Credentials.userRoleId = UserRoles.id "
+                    + "WHERE RefreshTokens.tokenHash=? FOR UPDATE OF RefreshTokens;";
+
+        PreparedStatement statement = connection.prepareStatement(query);
+        statement.setBytes(1, tokenHash);
+        ResultSet resultSet = statement.executeQuery();
+        if (!resultSet.next()) {
+            securityLogger.warn("Rejected unknown refresh token.");
+            throw new AuthenticationException("Refresh token is invalid.");
+        }
+
+        long id = resultSet.getLong("id");
+        byte[] familyId = resultSet.getBytes("familyId");
+        int userId = resultSet.getInt("userId");
+        Instant now = Instant.now();
+        if (resultSet.getBoolean("revoked")) {
+            securityLogger.warn("Rejected revoked refresh token for user ID: " + userId);
+            throw new AuthenticationException("Refresh token has been revoked.");
+        }
+        if (resultSet.getTimestamp("usedAt") != null) {
+            revokeFamily(connection, familyId);
+            // Keep the revocation even though the refresh itself fails
+            connection.commit();
+            securityLogger.warn("Refresh token reused for user ID: " + userId + "; revoked all of its refresh tokens.");
+            throw new AuthenticationException("Refresh token has already been used.");
+        }
+        if (!now.isBefore(resultSet.getTimestamp("expiresAt").toInstant())) {
+            securityLogger.info("Rejected expired refresh token for user ID: " + userId);
+            throw new AuthenticationException("Refresh token has expired.");
+        }
+
+        Credentials credentials = new Credentials();
+        credentials.setId(userId);
+        credentials.setFirstName(resultSet.getString("firstName"));
+        credentials.setLastName(resultSet.getString("lastName"));
+        credentials.setTitle(resultSet.getString("title"));
+        credentials.setDepartment(resultSet.getString("department"));
+        credentials.setLocation(resultSet.getString("location"));
+        credentials.setUserRole(resultSet.getString("userRole"));
+        Instant familyExpiresAt = resultSet.getTimestamp("familyExpiresAt").toInstant();
+
+        PreparedStatement markUsed = connection.prepareStatement("UPDATE RefreshTokens SET usedAt=? WHERE id=?;");
+        markUsed.setTimestamp(1, Timestamp.from(now));
+        markUsed.setLong(2, id);
+        markUsed.executeUpdate();
+
+        byte[] token = randomBytes(TOKEN_BYTES);
+        insert(connection, token, familyId, userId, now, familyExpiresAt);
+        logger.info("Refreshed token for user ID: {}", userId);
+        return new RefreshResult(credentials, BASE64URL.encodeToString(token));
+    }
+
+    /**
+     * Stores a new refresh token.
+     *
+     * @param connection the connection
+     * @param token the raw token
+     * @param familyId the family the token belongs to
+     * @param userId the ID of the user the token is issued to
+     * @param now the current time
+     * @param familyExpiresAt when the family reaches its maximum lifetime
+     * @throws SQLException if the insert fails
+     */
+    private void insert(Connection connection, byte[] token, byte[] familyId, int userId,
+                        Instant now, Instant familyExpiresAt) throws SQLException {
+        Instant expiresAt = now.plus(idleTimeout);
+        if (expiresAt.isAfter(familyExpiresAt)) {
+            expiresAt = familyExpiresAt;
+        }
+        String sql = """
+                    INSERT INTO RefreshTokens (tokenHash, familyId, userId, expiresAt, familyExpiresAt)
+                    VALUES (?, ?, ?, ?, ?);
+                    """;
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setBytes(1, sha256(token));
+        statement.setBytes(2, familyId);
+        statement.setInt(3, userId);
+        statement.setTimestamp(4, Timestamp.from(expiresAt));
+        statement.setTimestamp(5, Timestamp.from(familyExpiresAt));
+        statement.executeUpdate();
+    }
+
+    /**
+     * Revokes every refresh token of a family.
+     *
+     * @param connection the connection
+     * @param familyId the family to revoke
+     * @throws SQLException if the update fails
+     */
+    private void revokeFamily(Connection connection, byte[] familyId) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("UPDATE RefreshTokens SET revoked=TRUE WHERE familyId=?;");
+        statement.setBytes(1, familyId);
+        statement.executeUpdate();
+    }
+
+    /**
+     * Decodes a refresh token, rejecting anything that cannot be one without touching the database.
+     *
+     * @param refreshToken the refresh token
+     * @return the raw token
+     * @throws AuthenticationException if the token is malformed
+     */
+    private byte[] decode(String refreshToken) {
+        if (refreshToken == null || refreshToken.length() != TOKEN_LENGTH) {
+            securityLogger.warn("Rejected malformed refresh token.");
+            throw new AuthenticationException("Refresh token is invalid.");
+        }
+        try {
+            return BASE64URL_DECODER.decode(refreshToken);
+        } catch (IllegalArgumentException e) {
+            securityLogger.warn("Rejected malformed refresh token.");
+            throw new AuthenticationException("Refresh token is invalid.", e);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    static byte[] sha256(byte[] token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 SET FOREIGN_KEY_CHECKS = 0;
 
+DROP TABLE IF EXISTS RefreshTokens;
 DROP TABLE IF EXISTS Credentials;
 DROP TABLE IF EXISTS Titles;
 DROP TABLE IF EXISTS Departments;
@@ -39,7 +40,7 @@ CREATE TABLE UserRoles (
 CREATE TABLE Credentials (
     id INT AUTO_INCREMENT,
     email VARCHAR(64),
-    password VARCHAR(64),
+    password VARCHAR(255),
     isAdmin BOOLEAN DEFAULT FALSE,
     firstName VARCHAR(64),
     lastName VARCHAR(64),
@@ -49,12 +50,29 @@ CREATE TABLE Credentials (
     userRoleId INT,
 
     PRIMARY KEY (id),
+    UNIQUE (email),
     FOREIGN KEY (titleId) REFERENCES Titles(id) ON DELETE CASCADE,
     FOREIGN KEY (departmentId) REFERENCES Departments(id) ON DELETE CASCADE,
     FOREIGN KEY (locationId) REFERENCES Locations(id) ON DELETE CASCADE,
     FOREIGN KEY (userRoleId) REFERENCES UserRoles(id) ON DELETE CASCADE
 );
 
+CREATE TABLE RefreshTokens (
+    id BIGINT AUTO_INCREMENT,
+    tokenHash BINARY(32) NOT NULL,
+    familyId BINARY(16) NOT NULL,
+    userId INT NOT NULL,
+    expiresAt DATETIME(3) NOT NULL,
+    familyExpiresAt DATETIME(3) NOT NULL,
+    usedAt DATETIME(3),
+    revoked BOOLEAN DEFAULT FALSE,
+
+    PRIMARY KEY (id),
+    UNIQUE (tokenHash),
+    INDEX (familyId),
+    FOREIGN KEY (userId) REFERENCES Credentials(id) ON DELETE CASCADE
+);
+
 INSERT INTO Titles (title) VALUES ("Aide");
 INSERT INTO Titles (title) VALUES ("Developer");
 INSERT INTO Titles (title) VALUES ("Sales Agent");
@@ -76,6 +94,6 @@ INSERT INTO UserRoles (userRole) VALUES ("Contributor");
 INSERT INTO UserRoles (userRole) VALUES ("User");
 
 INSERT INTO Credentials (email, password, isAdmin, firstName, lastName, titleId, departmentId, locationId, userRoleId) 
-VALUES ('admin@flowersso.com', 'password9876', TRUE, "Georgette", "Fleugenheim", 
+VALUES ('admin@flowersso.com', '$2a$12$OVdY/lE3ApHzcIqmP7cwful51T0xEuCXncB9WLkIg23iqCpC1Ne4e', TRUE, "Georgette", "Fleugenheim", 
 (SELECT id FROM Titles WHERE title="Manager"), (SELECT id FROM Departments WHERE department="Hr"), 
 (SELECT id FROM Locations WHERE location="United States"), (SELECT id FROM UserRoles WHERE userRole="Manager"));
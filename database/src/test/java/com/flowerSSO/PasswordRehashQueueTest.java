@@ -0,0 +1,94 @@
+package com.flowerSSO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class PasswordRehashQueueTest {
+
+    private final PasswordHasher oldHasher = new PasswordHasherImpl(new BCryptPasswordHashAlgorithm(4));
+    private final PasswordHasher hasher = new PasswordHasherImpl(new BCryptPasswordHashAlgorithm(5));
+    private final Map<Integer, String> written = new ConcurrentHashMap<>();
+    private PasswordRehashQueue queue;
+
+    @AfterEach
+    void teardown() {
+        queue.close();
+    }
+
+    @Test
+    void testOutdatedHashRewrittenInBackground() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        queue = new PasswordRehashQueue(hasher, (id, currentHash, newHash) -> {
+            written.put(id, newHash);
+            done.countDown();
+            return true;
+        }, 4);
+        String stored = oldHasher.hash("correct horse battery");
+
+        assertTrue(queue.submitIfNeeded(7, "correct horse battery", stored));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        String rewritten = written.get(7);
+        assertTrue(hasher.verify("correct horse battery", rewritten));
+        assertFalse(hasher.needsRehash(rewritten));
+        assertFalse(queue.submitIfNeeded(7, "correct horse battery", rewritten));
+    }
+
+    @Test
+    void testFullQueueDropsAndDeduplicates() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = new PasswordRehashQueue(hasher, (id, currentHash, newHash) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }, 1);
+        String stored = oldHasher.hash("correct horse battery");
+
+        assertTrue(queue.submitIfNeeded(1, "correct horse battery", stored));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertFalse(queue.submitIfNeeded(1, "correct horse battery", stored));
+        assertTrue(queue.submitIfNeeded(2, "correct horse battery", stored));
+        assertFalse(queue.submitIfNeeded(3, "correct horse battery", stored));
+        assertEquals(2, queue.getPendingCount());
+        assertEquals(1, queue.getDroppedCount());
+
+        release.countDown();
+    }
+
+    @Test
+    void testWriterFailureIsCounted() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        queue = new PasswordRehashQueue(hasher, (id, currentHash, newHash) -> {
+            done.countDown();
+            throw new IllegalStateException("Database unavailable");
+        }, 1);
+
+        assertTrue(queue.submitIfNeeded(1, "correct horse battery", oldHasher.hash("correct horse battery")));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && queue.getFailedCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, queue.getFailedCount());
+        assertEquals(0, queue.getRewrittenCount());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        queue = new PasswordRehashQueue(hasher, (id, currentHash, newHash) -> true, 1);
+        assertThrows(IllegalArgumentException.class, () -> new PasswordRehashQueue(null, (id, currentHash, newHash) -> true, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordRehashQueue(hasher, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordRehashQueue(hasher, (id, currentHash, newHash) -> true, 0));
+    }
+}
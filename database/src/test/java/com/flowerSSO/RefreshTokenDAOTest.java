@@ -0,0 +1,230 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RefreshTokenDAO using Mockito for database mocking.
+ */
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenDAOTest {
+
+    private static final byte[] FAMILY_ID = new byte[16];
+
+    @Mock
+    private Connection mockConnection;
+
+    @Mock
+    private PreparedStatement mockPreparedStatement;
+
+    @Mock
+    private ResultSet mockResultSet;
+
+    private RefreshTokenDAO refreshTokenDAO;
+    private MockedStatic<DatabaseConnectionPool> mockedConnectionPool;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        refreshTokenDAO = new RefreshTokenDAO(Duration.ofDays(14), Duration.ofDays(30));
+
+        mockedConnectionPool = mockStatic(DatabaseConnectionPool.class);
+        mockedConnectionPool.when(DatabaseConnectionPool::getConnection).thenReturn(mockConnection);
+        lenient().when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        lenient().when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        lenient().when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+    }
+
+    @AfterEach
+    void teardown() {
+        if (mockedConnectionPool != null) {
+            mockedConnectionPool.close();
+        }
+    }
+
+    @Test
+    void issue_StoresHashNotToken() throws SQLException {
+        String token = refreshTokenDAO.issue(7);
+
+        assertEquals(43, token.length());
+        ArgumentCaptor<byte[]> hash = ArgumentCaptor.forClass(byte[].class);
+        verify(mockPreparedStatement).setBytes(eq(1), hash.capture());
+        assertArrayEquals(RefreshTokenDAO.sha256(Base64.getUrlDecoder().decode(token)), hash.getValue());
+        verify(mockPreparedStatement).setInt(3, 7);
+        verify(mockPreparedStatement).executeUpdate();
+    }
+
+    @Test
+    void issue_ExpiresAfterIdleTimeoutWithinMaxLifetime() throws SQLException {
+        Instant before = Instant.now();
+
+        refreshTokenDAO.issue(7);
+
+        ArgumentCaptor<Timestamp> expiresAt = ArgumentCaptor.forClass(Timestamp.class);
+        ArgumentCaptor<Timestamp> familyExpiresAt = ArgumentCaptor.forClass(Timestamp.class);
+        verify(mockPreparedStatement).setTimestamp(eq(4), expiresAt.capture());
+        verify(mockPreparedStatement).setTimestamp(eq(5), familyExpiresAt.capture());
+        assertFalse(expiresAt.getValue().toInstant().isBefore(before.plus(Duration.ofDays(14))));
+        assertTrue(expiresAt.getValue().toInstant().isBefore(familyExpiresAt.getValue().toInstant()));
+    }
+
+    @Test
+    void issue_SQLExceptionIsServiceFailure() throws SQLException {
+        when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("Database error"));
+
+        assertThrows(AuthenticationServiceException.class, () -> refreshTokenDAO.issue(7));
+    }
+
+    @Test
+    void refresh_Success_RotatesToken() throws SQLException {
+        String oldToken = refreshTokenDAO.issue(7);
+        clearInvocations(mockPreparedStatement);
+        mockStoredToken(null, false, Instant.now().plus(Duration.ofDays(1)));
+
+        RefreshResult result = refreshTokenDAO.refresh(oldToken);
+
+        assertEquals(7, result.credentials().getId());
+        assertEquals("John", result.credentials().getFirstName());
+        assertEquals("Engineering", result.credentials().getDepartment());
+        assertNotEquals(oldToken, result.refreshToken());
+        // Marks the old token used and stores the new one in the same family
+        verify(mockPreparedStatement, times(2)).executeUpdate();
+        verify(mockPreparedStatement).setBytes(2, FAMILY_ID);
+        verify(mockConnection).setAutoCommit(false);
+        verify(mockConnection).commit();
+        verify(mockConnection, never()).rollback();
+    }
+
+    @Test
+    void refresh_ReusedToken_RevokesFamily() throws SQLException {
+        mockStoredToken(Timestamp.from(Instant.now().minusSeconds(60)), false, Instant.now().plus(Duration.ofDays(1)));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        AuthenticationException exception = assertThrows(AuthenticationException.class,
+                () -> refreshTokenDAO.refresh(validToken()));
+
+        assertTrue(exception.getMessage().contains("already been used"));
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("SET revoked=TRUE WHERE familyId=?"));
+        verify(mockPreparedStatement).setBytes(1, FAMILY_ID);
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void refresh_RevokedToken_Rejected() throws SQLException {
+        mockStoredToken(null, true, Instant.now().plus(Duration.ofDays(1)));
+
+        assertThrows(AuthenticationException.class, () -> refreshTokenDAO.refresh(validToken()));
+        verify(mockPreparedStatement, never()).executeUpdate();
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    void refresh_ExpiredToken_Rejected() throws SQLException {
+        mockStoredToken(null, false, Instant.now().minusSeconds(1));
+
+        AuthenticationException exception = assertThrows(AuthenticationException.class,
+                () -> refreshTokenDAO.refresh(validToken()));
+
+        assertTrue(exception.getMessage().contains("expired"));
+        verify(mockPreparedStatement, never()).executeUpdate();
+    }
+
+    @Test
+    void refresh_UnknownToken_Rejected() throws SQLException {
+        when(mockResultSet.next()).thenReturn(false);
+
+        assertThrows(AuthenticationException.class, () -> refreshTokenDAO.refresh(validToken()));
+        verify(mockConnection).rollback();
+    }
+
+    @Test
+    void refresh_MalformedToken_RejectedWithoutDatabase() {
+        assertThrows(AuthenticationException.class, () -> refreshTokenDAO.refresh(null));
+        assertThrows(AuthenticationException.class, () -> refreshTokenDAO.refresh("too-short"));
+        assertThrows(AuthenticationException.class, () -> refreshTokenDAO.refresh("*".repeat(43)));
+
+        mockedConnectionPool.verifyNoInteractions();
+    }
+
+    @Test
+    void refresh_SQLExceptionIsServiceFailure() throws SQLException {
+        when(mockPreparedStatement.executeQuery()).thenThrow(new SQLException("Database error"));
+
+        assertThrows(AuthenticationServiceException.class, () -> refreshTokenDAO.refresh(validToken()));
+        verify(mockConnection).rollback();
+    }
+
+    @Test
+    void constructor_RejectsIdleTimeoutLongerThanMaxLifetime() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RefreshTokenDAO(Duration.ofDays(31), Duration.ofDays(30)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RefreshTokenDAO(Duration.ZERO, Duration.ofDays(30)));
+    }
+
+    // Helper methods
+
+    private void mockStoredToken(Timestamp usedAt, boolean revoked, Instant expiresAt) throws SQLException {
+        when(mockResultSet.next()).thenReturn(true);
+        lenient().when(mockResultSet.getLong("id")).thenReturn(1L);
+        lenient().when(mockResultSet.getBytes("familyId")).thenReturn(FAMILY_ID);
+        lenient().when(mockResultSet.getInt("userId")).thenReturn(7);
+        lenient().when(mockResultSet.getBoolean("revoked")).thenReturn(revoked);
+        lenient().when(mockResultSet.getTimestamp("usedAt")).thenReturn(usedAt);
+        lenient().when(mockResultSet.getTimestamp("expiresAt")).thenReturn(Timestamp.from(expiresAt));
+        lenient().when(mockResultSet.getTimestamp("familyExpiresAt")).thenReturn(Timestamp.from(Instant.now().plus(Duration.ofDays(20))));
+        lenient().when(mockResultSet.getString("firstName")).thenReturn("John");
+        lenient().when(mockResultSet.getString("lastName")).thenReturn("Doe");
+        lenient().when(mockResultSet.getString("title")).thenReturn("Engineer");
+        lenient().when(mockResultSet.getString("department")).thenReturn("Engineering");
+        lenient().when(mockResultSet.getString("location")).thenReturn("New York");
+        lenient().when(mockResultSet.getString("userRole")).thenReturn("User");
+    }
+
+    private static String validToken() {
+        byte[] token = new byte[32];
+        Arrays.fill(token, (byte) 1);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+}
@@ -40,7 +40,7 @@ public class EmailService {
     final static String starttlsEnable = "true";
     final static String sslProtocols = "TLSv1.2";
     final static String sslTrust = "smtp.gmail.com";
-    final static XssSanitizer sanitizer = new XssSanitizerImpl();
+    final static XssSanitizer sanitizer = XssSanitizerImpl.getInstance();
 
     private static void sendEmail(String recipient, String subject, String body, String contentType) {
         recipient = sanitizer.sanitizeInput(recipient);
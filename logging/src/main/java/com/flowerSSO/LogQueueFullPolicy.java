@@ -0,0 +1,71 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.DefaultAsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+
+/**
+ * Decides what happens to a log event when the queue of an asynchronous appender is full.
+ * <p>
+ * Debug and trace events are dropped and counted, so that verbose logging can never hold
+ * up a request. Events at info and above, which includes everything the security logger
+ * records, wait for room in the queue so that none is lost.
+ * <p>
+ * Installed for every asynchronous appender by {@code log4j2.component.properties}.
+ */
+public class LogQueueFullPolicy implements AsyncQueueFullPolicy {
+
+    /**
+     * The number of events dropped since startup, across all queues.
+     */
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /**
+     * Decides the route of events that are not dropped.
+     */
+    private final AsyncQueueFullPolicy blocking = new DefaultAsyncQueueFullPolicy();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public EventRoute getRoute(long backgroundThreadId, Level level) {
+        if (level.isLessSpecificThan(Level.DEBUG)) {
+            DROPPED.increment();
+            return EventRoute.DISCARD;
+        }
+        return blocking.getRoute(backgroundThreadId, level);
+    }
+
+    /**
+     * Gets the number of debug and trace events dropped because their queue was full.
+     * @return the dropped event count.
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+}
@@ -21,6 +21,8 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
+import java.util.function.Supplier;
+
 /**
  * Interface for accessing logging.
  * <p>
@@ -33,7 +35,10 @@ package com.flowerSSO;
  * <li>Error - Level for actual issues.</li>
  * </ul>
  * <p>
- * Messages must be Strings.
+ * Messages are Strings, either passed whole, built from a {@code {}} pattern and
+ * arguments, or supplied on demand. The last two forms do no work when the level
+ * is disabled, so they should be used on hot paths instead of concatenating the
+ * message; for anything else, guard with the matching {@code is...Enabled} check.
  * @author Ted Bjurlin
  */
 public interface Logger {
@@ -79,4 +84,139 @@ public interface Logger {
      * @param message message to send to the log.
      */
     public abstract void error(String message);
+
+    /**
+     * Checks whether messages at the trace level are logged.
+     * @return true if the trace level is enabled.
+     */
+    public abstract boolean isTraceEnabled();
+
+    /**
+     * Logs a message built from a pattern at the trace level, if it is enabled.
+     * @param pattern message with a {} placeholder for the argument.
+     * @param arg value substituted for the placeholder.
+     */
+    public abstract void trace(String pattern, Object arg);
+
+    /**
+     * Logs a message built from a pattern at the trace level, if it is enabled.
+     * @param pattern message with a {} placeholder for each argument.
+     * @param arg1 value substituted for the first placeholder.
+     * @param arg2 value substituted for the second placeholder.
+     */
+    public abstract void trace(String pattern, Object arg1, Object arg2);
+
+    /**
+     * Logs a supplied message at the trace level, calling the supplier only if it is enabled.
+     * @param message supplier of the message to send to the log.
+     */
+    public abstract void trace(Supplier<String> message);
+
+    /**
+     * Checks whether messages at the debug level are logged.
+     * @return true if the debug level is enabled.
+     */
+    public abstract boolean isDebugEnabled();
+
+    /**
+     * Logs a message built from a pattern at the debug level, if it is enabled.
+     * @param pattern message with a {} placeholder for the argument.
+     * @param arg value substituted for the placeholder.
+     */
+    public abstract void debug(String pattern, Object arg);
+
+    /**
+     * Logs a message built from a pattern at the debug level, if it is enabled.
+     * @param pattern message with a {} placeholder for each argument.
+     * @param arg1 value substituted for the first placeholder.
+     * @param arg2 value substituted for the second placeholder.
+     */
+    public abstract void debug(String pattern, Object arg1, Object arg2);
+
+    /**
+     * Logs a supplied message at the debug level, calling the supplier only if it is enabled.
+     * @param message supplier of the message to send to the log.
+     */
+    public abstract void debug(Supplier<String> message);
+
+    /**
+     * Checks whether messages at the info level are logged.
+     * @return true if the info level is enabled.
+     */
+    public abstract boolean isInfoEnabled();
+
+    /**
+     * Logs a message built from a pattern at the info level, if it is enabled.
+     * @param pattern message with a {} placeholder for the argument.
+     * @param arg value substituted for the placeholder.
+     */
+    public abstract void info(String pattern, Object arg);
+
+    /**
+     * Logs a message built from a pattern at the info level, if it is enabled.
+     * @param pattern message with a {} placeholder for each argument.
+     * @param arg1 value substituted for the first placeholder.
+     * @param arg2 value substituted for the second placeholder.
+     */
+    public abstract void info(String pattern, Object arg1, Object arg2);
+
+    /**
+     * Logs a supplied message at the info level, calling the supplier only if it is enabled.
+     * @param message supplier of the message to send to the log.
+     */
+    public abstract void info(Supplier<String> message);
+
+    /**
+     * Checks whether messages at the warn level are logged.
+     * @return true if the warn level is enabled.
+     */
+    public abstract boolean isWarnEnabled();
+
+    /**
+     * Logs a message built from a pattern at the warn level, if it is enabled.
+     * @param pattern message with a {} placeholder for the argument.
+     * @param arg value substituted for the placeholder.
+     */
+    public abstract void warn(String pattern, Object arg);
+
+    /**
+     * Logs a message built from a pattern at the warn level, if it is enabled.
+     * @param pattern message with a {} placeholder for each argument.
+     * @param arg1 value substituted for the first placeholder.
+     * @param arg2 value substituted for the second placeholder.
+     */
+    public abstract void warn(String pattern, Object arg1, Object arg2);
+
+    /**
+     * Logs a supplied message at the warn level, calling the supplier only if it is enabled.
+     * @param message supplier of the message to send to the log.
+     */
+    public abstract void warn(Supplier<String> message);
+
+    /**
+     * Checks whether messages at the error level are logged.
+     * @return true if the error level is enabled.
+     */
+    public abstract boolean isErrorEnabled();
+
+    /**
+     * Logs a message built from a pattern at the error level, if it is enabled.
+     * @param pattern message with a {} placeholder for the argument.
+     * @param arg value substituted for the placeholder.
+     */
+    public abstract void error(String pattern, Object arg);
+
+    /**
+     * Logs a message built from a pattern at the error level, if it is enabled.
+     * @param pattern message with a {} placeholder for each argument.
+     * @param arg1 value substituted for the first placeholder.
+     * @param arg2 value substituted for the second placeholder.
+     */
+    public abstract void error(String pattern, Object arg1, Object arg2);
+
+    /**
+     * Logs a supplied message at the error level, calling the supplier only if it is enabled.
+     * @param message supplier of the message to send to the log.
+     */
+    public abstract void error(Supplier<String> message);
 }
@@ -21,6 +21,8 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
+import java.util.function.Supplier;
+
 import org.apache.logging.log4j.LogManager;
 
 /**
@@ -85,5 +87,174 @@ public class LoggerImpl implements Logger {
     public void error(String message) {
         logger.error("{}", message);
     }
-    
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isTraceEnabled() {
+        return logger.isTraceEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void trace(String pattern, Object arg) {
+        logger.trace(pattern, arg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void trace(String pattern, Object arg1, Object arg2) {
+        logger.trace(pattern, arg1, arg2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void trace(Supplier<String> message) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("{}", message.get());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(String pattern, Object arg) {
+        logger.debug(pattern, arg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(String pattern, Object arg1, Object arg2) {
+        logger.debug(pattern, arg1, arg2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(Supplier<String> message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}", message.get());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(String pattern, Object arg) {
+        logger.info(pattern, arg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(String pattern, Object arg1, Object arg2) {
+        logger.info(pattern, arg1, arg2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(Supplier<String> message) {
+        if (logger.isInfoEnabled()) {
+            logger.info("{}", message.get());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(String pattern, Object arg) {
+        logger.warn(pattern, arg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(String pattern, Object arg1, Object arg2) {
+        logger.warn(pattern, arg1, arg2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(Supplier<String> message) {
+        if (logger.isWarnEnabled()) {
+            logger.warn("{}", message.get());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void error(String pattern, Object arg) {
+        logger.error(pattern, arg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void error(String pattern, Object arg1, Object arg2) {
+        logger.error(pattern, arg1, arg2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void error(Supplier<String> message) {
+        if (logger.isErrorEnabled()) {
+            logger.error("{}", message.get());
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.flowerSSO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicyFactory;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.junit.jupiter.api.Test;
+
+public class LogQueueFullPolicyTest {
+
+    // No background thread has this id, so events are never routed to the calling thread.
+    private static final long OTHER_THREAD = -1L;
+
+    private final LogQueueFullPolicy policy = new LogQueueFullPolicy();
+
+    @Test
+    void debugAndTraceEventsAreDroppedAndCounted() {
+        long before = LogQueueFullPolicy.getDroppedCount();
+
+        assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD, Level.DEBUG));
+        assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD, Level.TRACE));
+
+        assertEquals(before + 2, LogQueueFullPolicy.getDroppedCount());
+    }
+
+    @Test
+    void infoAndAboveWaitForTheQueue() {
+        long before = LogQueueFullPolicy.getDroppedCount();
+
+        assertEquals(EventRoute.ENQUEUE, policy.getRoute(OTHER_THREAD, Level.INFO));
+        assertEquals(EventRoute.ENQUEUE, policy.getRoute(OTHER_THREAD, Level.WARN));
+        assertEquals(EventRoute.ENQUEUE, policy.getRoute(OTHER_THREAD, Level.ERROR));
+
+        assertEquals(before, LogQueueFullPolicy.getDroppedCount());
+    }
+
+    @Test
+    void policyIsInstalledForAsyncAppenders() {
+        assertInstanceOf(LogQueueFullPolicy.class, AsyncQueueFullPolicyFactory.create());
+    }
+
+    @Test
+    void eachStreamWritesThroughItsOwnAsyncAppender() throws IOException {
+        Properties config = new Properties();
+        try (InputStream in = Files.newInputStream(Path.of("src/main/resources/log4j2.properties"))) {
+            config.load(in);
+        }
+        Map<String, String> appenderTypes = new HashMap<>();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith("appender.") && key.endsWith(".name")) {
+                String prefix = key.substring(0, key.length() - "name".length());
+                assertNull(appenderTypes.put(config.getProperty(key), config.getProperty(prefix + "type")),
+                        "Duplicate appender name " + config.getProperty(key));
+            }
+        }
+        assertEquals(6, appenderTypes.size());
+
+        Set<String> streamAppenders = new HashSet<>();
+        for (String ref : new String[] {"rootLogger.appenderRef.0.ref", "logger.0.appenderRef.0.ref", "logger.1.appenderRef.0.ref"}) {
+            String appender = config.getProperty(ref);
+            assertEquals("Async", appenderTypes.get(appender), ref);
+            assertTrue(streamAppenders.add(appender), ref);
+        }
+    }
+}
@@ -1,4 +1,65 @@
 package com.flowerSSO;
 
-public class LoggerImplTest {  
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class LoggerImplTest {
+
+    private static final String LOGGER_NAME = "com.flowerSSO.LoggerImplTest";
+
+    private final Logger logger = new LoggerImpl(LOGGER_NAME);
+
+    @BeforeAll
+    static void logAtInfo() {
+        Configurator.setLevel(LOGGER_NAME, Level.INFO);
+    }
+
+    @Test
+    void levelChecksFollowConfiguration() {
+        assertFalse(logger.isTraceEnabled());
+        assertFalse(logger.isDebugEnabled());
+        assertTrue(logger.isInfoEnabled());
+        assertTrue(logger.isWarnEnabled());
+        assertTrue(logger.isErrorEnabled());
+    }
+
+    @Test
+    void supplierNotCalledWhenLevelDisabled() {
+        AtomicInteger calls = new AtomicInteger();
+        logger.trace(() -> "trace " + calls.incrementAndGet());
+        logger.debug(() -> "debug " + calls.incrementAndGet());
+
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void supplierCalledWhenLevelEnabled() {
+        AtomicInteger calls = new AtomicInteger();
+        logger.info(() -> "info " + calls.incrementAndGet());
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void parameterizedArgumentNotFormattedWhenLevelDisabled() {
+        AtomicInteger calls = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return "argument " + calls.incrementAndGet();
+            }
+        };
+        logger.debug("value: {}", argument);
+        logger.debug("values: {} {}", argument, argument);
+
+        assertEquals(0, calls.get());
+    }
 }
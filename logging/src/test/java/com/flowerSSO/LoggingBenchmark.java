@@ -0,0 +1,91 @@
+package com.flowerSSO;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of logging from several request threads at once, as on the login path.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath. Throughput is the number of
+ * messages request threads can hand off per second; the sample-time percentiles show
+ * how long a single call can stall the calling thread. With {@code work} at zero the
+ * threads log back to back and saturate the appenders; otherwise each message follows
+ * some simulated request work, as when logging keeps pace with requests.
+ * <p>
+ * The test resources hold an empty configuration that shadows the real one, so pass
+ * {@code -jvmArgsAppend -Dlog4j2.configurationFile=target/classes/log4j2.properties}.
+ * To compare with synchronous logging, point it instead at a copy whose loggers
+ * reference the file appenders directly.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"0", "2000"})
+    private long work;
+
+    private Logger eventLogger;
+    private Logger securityLogger;
+
+    @Setup
+    public void setup() {
+        eventLogger = LoggerFactory.getEventLogger();
+        securityLogger = LoggerFactory.getSecurityLogger();
+    }
+
+    /**
+     * An info message on the event stream, such as a successful credentials lookup.
+     */
+    @Benchmark
+    public void eventInfo() {
+        Blackhole.consumeCPU(work);
+        eventLogger.info("Successfully retrieved credentials for email: {}", "jane.doe@example.com");
+    }
+
+    /**
+     * An info message on the security stream, which is never dropped.
+     */
+    @Benchmark
+    public void securityInfo() {
+        Blackhole.consumeCPU(work);
+        securityLogger.info("Password verification result: {}", Boolean.TRUE);
+    }
+
+    /**
+     * A debug message on the event stream, which is disabled.
+     */
+    @Benchmark
+    public void eventDebugDisabled() {
+        Blackhole.consumeCPU(work);
+        eventLogger.debug("returning the title: {}", "Manager");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoggingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
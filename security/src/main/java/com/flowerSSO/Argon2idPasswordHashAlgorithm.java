@@ -0,0 +1,151 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.security.MessageDigest;
+
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+/**
+ * Argon2id password hashing (RFC 9106), encoded in the PHC string format
+ * {@code $argon2id$v=19$m=<KiB>,t=<iterations>,p=<lanes>$<salt>$<hash>}.
+ * Memory makes the hash expensive to attack with GPUs; iterations scale the time
+ * taken linearly.
+ */
+public class Argon2idPasswordHashAlgorithm implements PasswordHashAlgorithm {
+
+    private static final String PREFIX = "$argon2id$";
+    private static final String VERSION = "v=19";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    // Bounds for parameters read back from stored hashes, so a corrupt row cannot exhaust the heap
+    private static final String[] PARAM_NAMES = {"m", "t", "p"};
+    private static final int[] PARAM_MIN = {8, 1, 1};
+    private static final int[] PARAM_MAX = {1 << 21, 100, 16};
+
+    private final Logger logger = LoggerFactory.getSecurityLogger();
+    private final int memoryKiB;
+    private final int iterations;
+    private final int parallelism;
+    private final String settings;
+
+    /**
+     * Creates the algorithm with its cost parameters.
+     *
+     * @param memoryKiB memory used per hash in KiB
+     * @param iterations passes over the memory
+     * @param parallelism number of lanes
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public Argon2idPasswordHashAlgorithm(int memoryKiB, int iterations, int parallelism) {
+        if (parallelism < PARAM_MIN[2] || parallelism > PARAM_MAX[2]
+                || iterations < PARAM_MIN[1] || iterations > PARAM_MAX[1]
+                || memoryKiB < 8 * parallelism || memoryKiB > PARAM_MAX[0]) {
+            logger.error("Argon2id parameters out of range: m=" + memoryKiB + ", t=" + iterations + ", p=" + parallelism);
+            throw new IllegalArgumentException("Argon2id parameters out of range");
+        }
+        this.memoryKiB = memoryKiB;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+        this.settings = PREFIX + VERSION + "$m=" + memoryKiB + ",t=" + iterations + ",p=" + parallelism + "$";
+    }
+
+    /**
+     * Gets the passes over memory used for new hashes.
+     *
+     * @return the iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFormatOf(String hashed) {
+        return hashed.startsWith(PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String hash(String plaintext) {
+        byte[] salt = PasswordHashEncoding.newSalt(SALT_BYTES);
+        byte[] hash = derive(plaintext, salt, memoryKiB, iterations, parallelism, HASH_BYTES);
+        return settings + PasswordHashEncoding.encode(salt) + "$" + PasswordHashEncoding.encode(hash);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean verify(String plaintext, String hashed) {
+        // "", "argon2id", "v=19", params, salt, hash
+        String[] fields = hashed.split("\\$");
+        if (fields.length != 6 || !VERSION.equals(fields[2])) {
+            throw new IllegalArgumentException("Not an Argon2id v19 hash");
+        }
+        int[] params = PasswordHashEncoding.parseParams(fields[3], PARAM_NAMES, PARAM_MIN, PARAM_MAX);
+        byte[] salt = PasswordHashEncoding.decode(fields[4]);
+        byte[] expected = PasswordHashEncoding.decode(fields[5]);
+        if (expected.length == 0) {
+            throw new IllegalArgumentException("Argon2id hash is empty");
+        }
+        byte[] actual = derive(plaintext, salt, params[0], params[1], params[2], expected.length);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean needsRehash(String hashed) {
+        return !hashed.startsWith(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String describe() {
+        return "argon2id(m=" + memoryKiB + ",t=" + iterations + ",p=" + parallelism + ")";
+    }
+
+    private static byte[] derive(String plaintext, byte[] salt, int memoryKiB, int iterations, int parallelism, int length) {
+        Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withMemoryAsKB(memoryKiB)
+                .withIterations(iterations)
+                .withParallelism(parallelism)
+                .withSalt(salt)
+                .build();
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(parameters);
+        byte[] hash = new byte[length];
+        generator.generateBytes(plaintext.toCharArray(), hash);
+        return hash;
+    }
+}
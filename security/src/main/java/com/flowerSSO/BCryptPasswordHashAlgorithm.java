@@ -0,0 +1,114 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * BCrypt password hashing. Each extra round doubles the cost.
+ */
+public class BCryptPasswordHashAlgorithm implements PasswordHashAlgorithm {
+
+    /**
+     * Fewest rounds this class will hash with.
+     */
+    public static final int MIN_ROUNDS = 4;
+
+    /**
+     * Most rounds this class will hash with.
+     */
+    public static final int MAX_ROUNDS = 30;
+
+    // Every BCrypt hash is this long: $2a$, two digit cost, $, 22 salt and 31 hash characters
+    private static final int HASH_LENGTH = 60;
+
+    private final Logger logger = LoggerFactory.getSecurityLogger();
+    private final int rounds;
+    private final String settings;
+
+    /**
+     * Creates the algorithm with a work factor.
+     *
+     * @param rounds the log2 of the number of key expansion rounds
+     * @throws IllegalArgumentException if rounds is outside MIN_ROUNDS to MAX_ROUNDS
+     */
+    public BCryptPasswordHashAlgorithm(int rounds) {
+        if (rounds < MIN_ROUNDS || rounds > MAX_ROUNDS) {
+            logger.error("BCrypt rounds out of range: " + rounds);
+            throw new IllegalArgumentException("BCrypt rounds must be between " + MIN_ROUNDS + " and " + MAX_ROUNDS);
+        }
+        this.rounds = rounds;
+        this.settings = String.format("$2a$%02d$", rounds);
+    }
+
+    /**
+     * Gets the work factor used for new hashes.
+     *
+     * @return the rounds
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFormatOf(String hashed) {
+        return hashed.startsWith("$2");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String hash(String plaintext) {
+        return BCrypt.hashpw(plaintext, BCrypt.gensalt(rounds));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean verify(String plaintext, String hashed) {
+        if (hashed.length() != HASH_LENGTH) {
+            throw new IllegalArgumentException("Not a BCrypt hash");
+        }
+        return BCrypt.checkpw(plaintext, hashed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean needsRehash(String hashed) {
+        return !hashed.startsWith(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String describe() {
+        return "bcrypt(rounds=" + rounds + ")";
+    }
+}
@@ -0,0 +1,219 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission-controlling decorator for a PasswordHasher.
+ * <p>
+ * Password hashing is deliberately expensive, so running it on request threads lets a
+ * burst of logins take every core and starve cheap requests. This hasher runs the
+ * delegate on a fixed pool of threads behind a bounded wait queue. Callers block until
+ * their hash is done, but once the queue is full further calls fail at once with a
+ * {@link PasswordHasherSaturatedException} that says when to retry, instead of piling up.
+ */
+public class BoundedPasswordHasher implements PasswordHasher, AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getSecurityLogger();
+
+    private final PasswordHasher delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int threads;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Constructs a bounded hasher.
+     *
+     * @param delegate the hasher that does the work
+     * @param threads the number of hashing threads, or 0 for one per available processor
+     * @param queueCapacity the number of calls that may wait for a free thread
+     */
+    public BoundedPasswordHasher(PasswordHasher delegate, int threads, int queueCapacity) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate password hasher cannot be null");
+        }
+        if (threads < 0 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Thread count and queue capacity must be non-negative");
+        }
+        this.delegate = delegate;
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        BlockingQueue<Runnable> queue = queueCapacity == 0
+                ? new SynchronousQueue<>()
+                : new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws PasswordHasherSaturatedException if too many hashes are already waiting
+     */
+    @Override
+    public String hash(String plaintext) {
+        return run(() -> delegate.hash(plaintext));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws PasswordHasherSaturatedException if too many hashes are already waiting
+     */
+    @Override
+    public boolean verify(String plaintext, String hashed) {
+        return run(() -> delegate.verify(plaintext, hashed));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Runs on the calling thread, since it does not hash.
+     */
+    @Override
+    public boolean needsRehash(String hashed) {
+        return delegate.needsRehash(hashed);
+    }
+
+    /**
+     * Gets the number of calls waiting for a free hashing thread.
+     * @return The current queue depth.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the number of hashes completed.
+     * @return The completed hash count.
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Gets the number of calls refused because the queue was full.
+     * @return The rejected call count.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the mean time a hashing thread spends on one hash.
+     * @return The mean hash latency in nanoseconds, or 0 before the first hash.
+     */
+    public long getMeanHashNanos() {
+        long count = completed.sum();
+        return count == 0 ? 0 : hashNanos.sum() / count;
+    }
+
+    /**
+     * Gets the mean time a call waits in the queue before a thread takes it.
+     * @return The mean queue wait in nanoseconds, or 0 before the first hash.
+     */
+    public long getMeanWaitNanos() {
+        long count = completed.sum();
+        return count == 0 ? 0 : waitNanos.sum() / count;
+    }
+
+    /**
+     * Stops the hashing threads; calls still queued are abandoned.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a hashing task on the pool and waits for its result.
+     *
+     * @param task the call to the delegate
+     * @return the delegate's result
+     */
+    private <T> T run(Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long finished = System.nanoTime();
+                    waitNanos.add(started - submitted);
+                    hashNanos.add(finished - started);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing queue is full: refusing request.");
+            throw new PasswordHasherSaturatedException("Password hashing capacity exceeded", retryAfterSeconds());
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for a password hash.");
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * Estimates how long it takes to work through the hashes queued now.
+     *
+     * @return the delay in whole seconds, at least one
+     */
+    private long retryAfterSeconds() {
+        long backlog = (long) getQueueDepth() + threads;
+        long drainNanos = backlog * getMeanHashNanos() / threads;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(drainNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
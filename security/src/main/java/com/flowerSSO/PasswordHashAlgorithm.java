@@ -0,0 +1,74 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+/**
+ * A single password hashing scheme with fixed cost parameters.
+ * <p>
+ * Hashes are self-describing: the scheme is identified by the prefix of the encoded
+ * hash and the cost parameters used are stored alongside the salt, so any instance of
+ * an algorithm can verify hashes made at any cost.
+ */
+public interface PasswordHashAlgorithm {
+
+    /**
+     * Checks whether an encoded hash was produced by this algorithm, judged by its prefix.
+     *
+     * @param hashed the encoded hash
+     * @return true if this algorithm should be used to verify the hash
+     */
+    boolean isFormatOf(String hashed);
+
+    /**
+     * Hashes a plaintext password with a fresh salt and this instance's cost parameters.
+     *
+     * @param plaintext the plaintext password, already checked to be non-empty
+     * @return the encoded hash, including algorithm, cost parameters and salt
+     */
+    String hash(String plaintext);
+
+    /**
+     * Verifies a plaintext password against a hash using the cost parameters stored in the hash.
+     *
+     * @param plaintext the plaintext password, already checked to be non-empty
+     * @param hashed the encoded hash
+     * @return true if the plaintext matches the hash, false otherwise
+     * @throws IllegalArgumentException if the hash is malformed
+     */
+    boolean verify(String plaintext, String hashed);
+
+    /**
+     * Checks whether a hash should be replaced because it was made by another algorithm
+     * or with cost parameters other than this instance's.
+     *
+     * @param hashed the encoded hash
+     * @return true if hashing the password again would give a hash with different parameters
+     */
+    boolean needsRehash(String hashed);
+
+    /**
+     * Describes the algorithm and its cost parameters for logging, e.g. {@code bcrypt(rounds=12)}.
+     *
+     * @return the description
+     */
+    String describe();
+}
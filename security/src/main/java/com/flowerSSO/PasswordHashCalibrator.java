@@ -0,0 +1,164 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Picks password hashing cost parameters by timing hashes on the current machine.
+ * <p>
+ * The cost is raised one step at a time until a hash would take longer than the
+ * target, so fast nodes get stronger hashes and slow nodes stay responsive. The cost
+ * never drops below a floor that keeps hashes safe to store, even if that floor is
+ * slower than the target.
+ */
+public final class PasswordHashCalibrator {
+
+    /**
+     * Fewest BCrypt rounds used, whatever the target.
+     */
+    public static final int BCRYPT_MIN_ROUNDS = 10;
+
+    /**
+     * Argon2id memory per hash in KiB (19 MiB, the OWASP minimum with two or more iterations).
+     */
+    public static final int ARGON2ID_MEMORY_KIB = 19456;
+
+    /**
+     * Fewest Argon2id iterations used, whatever the target.
+     */
+    public static final int ARGON2ID_MIN_ITERATIONS = 2;
+
+    /**
+     * Fewest scrypt cost steps (log2 N) used, whatever the target: 32 MiB per hash with r = 8.
+     */
+    public static final int SCRYPT_MIN_LOG2N = 15;
+
+    /**
+     * Scrypt block size r.
+     */
+    public static final int SCRYPT_BLOCK_SIZE = 8;
+
+    private static final int BCRYPT_MAX_ROUNDS = 16;
+    private static final int ARGON2ID_MAX_ITERATIONS = 20;
+    private static final int SCRYPT_MAX_LOG2N = 20;
+    private static final int RUNS_PER_COST = 2;
+    private static final String SAMPLE_PASSWORD = "calibration-Passw0rd!";
+
+    private static final Logger logger = LoggerFactory.getSecurityLogger();
+
+    private PasswordHashCalibrator() {
+    }
+
+    /**
+     * Calibrates BCrypt rounds to the target.
+     *
+     * @param target the longest a single hash should take
+     * @return the calibrated algorithm
+     */
+    public static BCryptPasswordHashAlgorithm calibrateBCrypt(Duration target) {
+        return (BCryptPasswordHashAlgorithm) calibrate(BCryptPasswordHashAlgorithm::new,
+                BCRYPT_MIN_ROUNDS, BCRYPT_MAX_ROUNDS, target);
+    }
+
+    /**
+     * Calibrates Argon2id iterations to the target, with fixed memory and a single lane.
+     *
+     * @param target the longest a single hash should take
+     * @return the calibrated algorithm
+     */
+    public static Argon2idPasswordHashAlgorithm calibrateArgon2id(Duration target) {
+        return (Argon2idPasswordHashAlgorithm) calibrate(
+                iterations -> new Argon2idPasswordHashAlgorithm(ARGON2ID_MEMORY_KIB, iterations, 1),
+                ARGON2ID_MIN_ITERATIONS, ARGON2ID_MAX_ITERATIONS, target);
+    }
+
+    /**
+     * Calibrates the scrypt cost N to the target, with a fixed block size and no parallelism.
+     *
+     * @param target the longest a single hash should take
+     * @return the calibrated algorithm
+     */
+    public static ScryptPasswordHashAlgorithm calibrateScrypt(Duration target) {
+        return (ScryptPasswordHashAlgorithm) calibrate(
+                log2N -> new ScryptPasswordHashAlgorithm(log2N, SCRYPT_BLOCK_SIZE, 1),
+                SCRYPT_MIN_LOG2N, SCRYPT_MAX_LOG2N, target);
+    }
+
+    /**
+     * Finds the highest cost from minCost to maxCost whose hash time stays within the target.
+     * Each cost is timed as the fastest of a few hashes, after one warm-up hash at minCost.
+     *
+     * @param atCost creates the algorithm for a cost
+     * @param minCost the floor, returned even if it is slower than the target
+     * @param maxCost the ceiling
+     * @param target the longest a single hash should take
+     * @return the algorithm at the calibrated cost
+     * @throws IllegalArgumentException if the target is not positive or minCost exceeds maxCost
+     */
+    public static PasswordHashAlgorithm calibrate(IntFunction<PasswordHashAlgorithm> atCost,
+            int minCost, int maxCost, Duration target) {
+        if (target == null || target.isNegative() || target.isZero()) {
+            logger.error("Password hashing calibration target must be positive");
+            throw new IllegalArgumentException("Calibration target must be positive");
+        }
+        if (minCost > maxCost) {
+            logger.error("Password hashing calibration range is empty");
+            throw new IllegalArgumentException("minCost cannot exceed maxCost");
+        }
+
+        PasswordHashAlgorithm chosen = atCost.apply(minCost);
+        chosen.hash(SAMPLE_PASSWORD);
+        long targetNanos = target.toNanos();
+        long elapsed = time(chosen);
+        if (elapsed > targetNanos) {
+            PasswordHashAlgorithm floor = chosen;
+            long floorMillis = elapsed / 1_000_000;
+            logger.warn(() -> floor.describe() + " takes " + floorMillis + " ms, over the "
+                    + target.toMillis() + " ms target, but is the weakest cost allowed");
+            return chosen;
+        }
+        for (int cost = minCost + 1; cost <= maxCost; cost++) {
+            PasswordHashAlgorithm candidate = atCost.apply(cost);
+            long candidateElapsed = time(candidate);
+            if (candidateElapsed > targetNanos) {
+                break;
+            }
+            chosen = candidate;
+            elapsed = candidateElapsed;
+        }
+        logger.info("Calibrated password hashing to {} at {} ms per hash",
+                chosen.describe(), elapsed / 1_000_000);
+        return chosen;
+    }
+
+    private static long time(PasswordHashAlgorithm algorithm) {
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS_PER_COST; run++) {
+            long start = System.nanoTime();
+            algorithm.hash(SAMPLE_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
@@ -0,0 +1,102 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Helpers for the PHC string format ({@code $id$params$salt$hash}) shared by the
+ * Argon2id and scrypt algorithms.
+ */
+final class PasswordHashEncoding {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private PasswordHashEncoding() {
+    }
+
+    /**
+     * Generates a random salt.
+     *
+     * @param length the salt length in bytes
+     * @return the salt
+     */
+    static byte[] newSalt(int length) {
+        byte[] salt = new byte[length];
+        RANDOM.nextBytes(salt);
+        return salt;
+    }
+
+    /**
+     * Encodes bytes as unpadded standard Base64, as the PHC format requires.
+     *
+     * @param bytes the bytes to encode
+     * @return the encoded bytes
+     */
+    static String encode(byte[] bytes) {
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * Decodes unpadded standard Base64.
+     *
+     * @param encoded the encoded bytes
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the input is not valid Base64
+     */
+    static byte[] decode(String encoded) {
+        return DECODER.decode(encoded);
+    }
+
+    /**
+     * Parses a PHC parameter list such as {@code m=19456,t=2,p=1}. The names must
+     * appear in the given order and each value must lie within its bounds.
+     *
+     * @param params the parameter list
+     * @param names the expected parameter names, in order
+     * @param min the smallest accepted value for each parameter
+     * @param max the largest accepted value for each parameter
+     * @return the parameter values, in the order of names
+     * @throws IllegalArgumentException if the list does not match or a value is out of bounds
+     */
+    static int[] parseParams(String params, String[] names, int[] min, int[] max) {
+        String[] parts = params.split(",");
+        if (parts.length != names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " hash parameters");
+        }
+        int[] values = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String prefix = names[i] + "=";
+            if (!parts[i].startsWith(prefix)) {
+                throw new IllegalArgumentException("Missing hash parameter " + names[i]);
+            }
+            values[i] = Integer.parseInt(parts[i].substring(prefix.length()));
+            if (values[i] < min[i] || values[i] > max[i]) {
+                throw new IllegalArgumentException("Hash parameter " + names[i] + " is out of range");
+            }
+        }
+        return values;
+    }
+}
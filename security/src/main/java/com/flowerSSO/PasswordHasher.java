@@ -47,4 +47,15 @@ public interface PasswordHasher {
      * @throws IllegalArgumentException if either parameter is null or empty
      */
     boolean verify(String plaintext, String hashed);
+
+    /**
+     * Checks whether a stored hash should be replaced with a fresh hash of the same
+     * password, because the hashing algorithm or its cost has changed since it was made.
+     * This only inspects the hash, so it is cheap enough to call on every login.
+     *
+     * @param hashed the stored hash
+     * @return true if the hash was made with an algorithm or cost other than the current one
+     * @throws IllegalArgumentException if hashed is null or empty
+     */
+    boolean needsRehash(String hashed);
 }
@@ -21,11 +21,13 @@ package com.flowerSSO;
  * For more information, please refer to: https://unlicense.org/
 */
 
-import org.mindrot.jbcrypt.BCrypt;
+import java.util.List;
 
 /**
- * Implementation of PasswordHasher using BCrypt hashing algorithm.
- * BCrypt is a secure password hashing function designed specifically for passwords.
+ * Implementation of PasswordHasher that hashes with one configured algorithm and
+ * verifies hashes made by any supported algorithm, chosen by the encoded hash prefix.
+ * BCrypt, Argon2id and scrypt are supported, so the algorithm or its cost can change
+ * without invalidating stored hashes.
  * 
  * @author Ben Edens
  * @version 1.0
@@ -34,9 +36,47 @@ public class PasswordHasherImpl implements PasswordHasher {
 
     private final Logger logger = LoggerFactory.getSecurityLogger();
     
-    // BCrypt work factor - higher is more secure but slower (10-12 is recommended)
+    // BCrypt work factor used when no algorithm is given - higher is more secure but slower (10-12 is recommended)
     private static final int BCRYPT_ROUNDS = 12;
 
+    // One of each supported algorithm; verification reads the cost from the hash, so these costs are never used
+    private static final List<PasswordHashAlgorithm> VERIFIERS = List.of(
+            new BCryptPasswordHashAlgorithm(BCRYPT_ROUNDS),
+            new Argon2idPasswordHashAlgorithm(PasswordHashCalibrator.ARGON2ID_MEMORY_KIB, PasswordHashCalibrator.ARGON2ID_MIN_ITERATIONS, 1),
+            new ScryptPasswordHashAlgorithm(PasswordHashCalibrator.SCRYPT_MIN_LOG2N, PasswordHashCalibrator.SCRYPT_BLOCK_SIZE, 1));
+
+    private final PasswordHashAlgorithm algorithm;
+
+    /**
+     * Creates a hasher that hashes with BCrypt at 12 rounds.
+     */
+    public PasswordHasherImpl() {
+        this(new BCryptPasswordHashAlgorithm(BCRYPT_ROUNDS));
+    }
+
+    /**
+     * Creates a hasher that hashes new passwords with the given algorithm.
+     *
+     * @param algorithm the algorithm for new hashes, usually from PasswordHashCalibrator
+     * @throws IllegalArgumentException if algorithm is null
+     */
+    public PasswordHasherImpl(PasswordHashAlgorithm algorithm) {
+        if (algorithm == null) {
+            logger.error("Attempt to create password hasher without an algorithm");
+            throw new IllegalArgumentException("Password hash algorithm cannot be null");
+        }
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Gets the algorithm new passwords are hashed with.
+     *
+     * @return the algorithm
+     */
+    public PasswordHashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -54,7 +94,7 @@ public class PasswordHasherImpl implements PasswordHasher {
             throw new IllegalArgumentException("Password cannot be empty");
         }
         
-        String hashed = BCrypt.hashpw(plaintext, BCrypt.gensalt(BCRYPT_ROUNDS));
+        String hashed = algorithm.hash(plaintext);
         logger.debug("Password hashed successfully");
         return hashed;
     }
@@ -76,13 +116,43 @@ public class PasswordHasherImpl implements PasswordHasher {
             throw new IllegalArgumentException("Hashed password cannot be null or empty");
         }
         
+        PasswordHashAlgorithm verifier = verifierFor(hashed);
+        if (verifier == null) {
+            logger.error("Unrecognised hash format during verification");
+            return false;
+        }
+
         try {
-            boolean matches = BCrypt.checkpw(plaintext, hashed);
-            logger.debug("Password verification result: " + matches);
+            boolean matches = verifier.verify(plaintext, hashed);
+            logger.debug("Password verification result: {}", matches);
             return matches;
         } catch (IllegalArgumentException e) {
             logger.error("Invalid hash format during verification: " + e.getMessage());
             return false;
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean needsRehash(String hashed) {
+        if (hashed == null || hashed.isEmpty()) {
+            logger.error("Attempt to check null or empty hashed password for rehash");
+            throw new IllegalArgumentException("Hashed password cannot be null or empty");
+        }
+        return algorithm.needsRehash(hashed);
+    }
+
+    private PasswordHashAlgorithm verifierFor(String hashed) {
+        if (algorithm.isFormatOf(hashed)) {
+            return algorithm;
+        }
+        for (PasswordHashAlgorithm verifier : VERIFIERS) {
+            if (verifier.isFormatOf(hashed)) {
+                return verifier;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,148 @@
+package com.flowerSSO;
+
+/*
+ * This is free and unencumbered software released into the public domain.
+ * Anyone is free to copy, modify, publish, use, compile, sell, or distribute this software,
+ * either in source code form or as a compiled binary, for any purpose, commercial or
+ * non-commercial, and by any means.
+ *
+ * In jurisdictions that recognize copyright laws, the author or authors of this
+ * software dedicate any and all copyright interest in the software to the public domain.
+ * We make this dedication for the benefit of the public at large and to the detriment of
+ * our heirs and successors. We intend this dedication to be an overt act of relinquishment in
+ * perpetuity of all present and future rights to this software under copyright law.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES
+ * OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * For more information, please refer to: https://unlicense.org/
+*/
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.bouncycastle.crypto.generators.SCrypt;
+
+/**
+ * Scrypt password hashing (RFC 7914), encoded in the PHC string format
+ * {@code $scrypt$ln=<log2 N>,r=<block size>,p=<parallelism>$<salt>$<hash>}.
+ * Each hash uses 128 * r * N bytes of memory; each step of ln doubles time and memory.
+ */
+public class ScryptPasswordHashAlgorithm implements PasswordHashAlgorithm {
+
+    private static final String PREFIX = "$scrypt$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    // Bounds for parameters read back from stored hashes, so a corrupt row cannot exhaust the heap
+    private static final String[] PARAM_NAMES = {"ln", "r", "p"};
+    private static final int[] PARAM_MIN = {1, 1, 1};
+    private static final int[] PARAM_MAX = {22, 32, 16};
+    private static final long MAX_MEMORY_BYTES = 1L << 30;
+
+    private final Logger logger = LoggerFactory.getSecurityLogger();
+    private final int log2N;
+    private final int blockSize;
+    private final int parallelism;
+    private final String settings;
+
+    /**
+     * Creates the algorithm with its cost parameters.
+     *
+     * @param log2N the log2 of the CPU/memory cost N
+     * @param blockSize the block size r
+     * @param parallelism the parallelism p
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public ScryptPasswordHashAlgorithm(int log2N, int blockSize, int parallelism) {
+        if (log2N < PARAM_MIN[0] || log2N > PARAM_MAX[0]
+                || blockSize < PARAM_MIN[1] || blockSize > PARAM_MAX[1]
+                || parallelism < PARAM_MIN[2] || parallelism > PARAM_MAX[2]
+                || memoryBytes(log2N, blockSize) > MAX_MEMORY_BYTES) {
+            logger.error("Scrypt parameters out of range: ln=" + log2N + ", r=" + blockSize + ", p=" + parallelism);
+            throw new IllegalArgumentException("Scrypt parameters out of range");
+        }
+        this.log2N = log2N;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.settings = PREFIX + "ln=" + log2N + ",r=" + blockSize + ",p=" + parallelism + "$";
+    }
+
+    /**
+     * Gets the log2 of the cost N used for new hashes.
+     *
+     * @return log2 of N
+     */
+    public int getLog2N() {
+        return log2N;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFormatOf(String hashed) {
+        return hashed.startsWith(PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String hash(String plaintext) {
+        byte[] salt = PasswordHashEncoding.newSalt(SALT_BYTES);
+        byte[] hash = derive(plaintext, salt, log2N, blockSize, parallelism, HASH_BYTES);
+        return settings + PasswordHashEncoding.encode(salt) + "$" + PasswordHashEncoding.encode(hash);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean verify(String plaintext, String hashed) {
+        // "", "scrypt", params, salt, hash
+        String[] fields = hashed.split("\\$");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Not a scrypt hash");
+        }
+        int[] params = PasswordHashEncoding.parseParams(fields[2], PARAM_NAMES, PARAM_MIN, PARAM_MAX);
+        if (memoryBytes(params[0], params[1]) > MAX_MEMORY_BYTES) {
+            throw new IllegalArgumentException("Scrypt hash needs too much memory");
+        }
+        byte[] salt = PasswordHashEncoding.decode(fields[3]);
+        byte[] expected = PasswordHashEncoding.decode(fields[4]);
+        if (expected.length == 0) {
+            throw new IllegalArgumentException("Scrypt hash is empty");
+        }
+        byte[] actual = derive(plaintext, salt, params[0], params[1], params[2], expected.length);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean needsRehash(String hashed) {
+        return !hashed.startsWith(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String describe() {
+        return "scrypt(ln=" + log2N + ",r=" + blockSize + ",p=" + parallelism + ")";
+    }
+
+    private static long memoryBytes(int log2N, int blockSize) {
+        return 128L * blockSize << log2N;
+    }
+
+    private static byte[] derive(String plaintext, byte[] salt, int log2N, int blockSize, int parallelism, int length) {
+        return SCrypt.generate(plaintext.getBytes(StandardCharsets.UTF_8), salt,
+                1 << log2N, blockSize, parallelism, length);
+    }
+}
@@ -25,6 +25,9 @@ import org.jsoup.safety.Safelist;
 
 /**
  * This is the utility interface to sanitize String against xss attacks.
+ * <p>
+ * Implementations must be thread-safe, so that a single sanitizer can be
+ * shared by every object that validates input.
  * 
  * @author Janniebeth Melendez
  * @version 1.0
@@ -32,19 +35,12 @@ import org.jsoup.safety.Safelist;
 public interface XssSanitizer {
 
     /**
-	 * Returns the current rules.
+	 * Returns a copy of the rules used to clean input.
 	 * <p>
 	 * @return the current rules
 	 */
 	Safelist getRules();
 
-    /**
-	 * Loads a new rules.
-	 * <p>
-	 * @param rules the rules definition to load
-	 */
-	void setRules(Safelist rules);
-
     /**
      * Scan Routine
      * 
@@ -27,6 +27,13 @@ import org.apache.commons.text.StringEscapeUtils;
 
 /**
  *This is the utility class to sanitize String against XSS attacks.
+ * <p>
+ * Input made only of plain text characters is returned trimmed without being
+ * parsed, since cleaning it could not change it; anything else is cleaned by Jsoup.
+ * <p>
+ * Instances are immutable and thread-safe: the rules are copied when the sanitizer
+ * is built and never change, so one sanitizer can be shared by every caller.
+ * {@link #getInstance()} returns the shared sanitizer that allows no tags.
  * 
  * @author Janniebeth Melendez
  * @version 1.0
@@ -34,43 +41,72 @@ import org.apache.commons.text.StringEscapeUtils;
 public class XssSanitizerImpl
     implements XssSanitizer {
     
+    /**
+     * ASCII characters that Jsoup leaves untouched in text with no tags allowed.
+     * Markup and entity delimiters, quotes and control characters, including any
+     * whitespace but a space, send the input to Jsoup.
+     */
+    private static final boolean[] PLAIN_ASCII = new boolean[128];
+
+    static
+    {
+        for (char c = ' '; c < 0x7f; c++)
+        {
+            PLAIN_ASCII[c] = true;
+        }
+        for (char c : new char[] {'<', '>', '&', '"', '\''})
+        {
+            PLAIN_ASCII[c] = false;
+        }
+    }
+
+    private static final XssSanitizer INSTANCE = new XssSanitizerImpl();
+
     private final Logger logger = LoggerFactory.getSecurityLogger();
 
-    private Safelist rules = null;
+    private final Safelist rules;
 
     public XssSanitizerImpl()
+    {
+        this(Safelist.none());
+    }
+
+    /**
+     * Constructs a sanitizer that cleans input with the given rules.
+     * 
+     * @param rulesIn the rules definition to use, copied so later changes to it have no effect
+     * @throws IllegalArgumentException if the rules are null
+     */
+    public XssSanitizerImpl(final Safelist rulesIn)
     {
         logger.debug("Starting constructor");
-        Safelist defaultRules = Safelist.none();
-        logger.trace("Setting default rules to Safelist.none");
-        setRules(defaultRules);
+        if (rulesIn == null)
+        {
+            logger.error("Attempt to set the rules to null");
+            throw new IllegalArgumentException("The rules must be provided");
+        }
+        this.rules = new Safelist(rulesIn);
     }
 
     /**
-     *{@inheritDoc}
-	 */
-	@Override
-	public Safelist getRules()
-	{
-		logger.debug("Returnung the current rules: " + rules.toString());
-		return rules;
-	}
+     * Returns the shared sanitizer that removes all tags.
+     * 
+     * @return the shared sanitizer
+     */
+    public static XssSanitizer getInstance()
+    {
+        return INSTANCE;
+    }
 
     /**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void setRules(final Safelist rulesIn)
-	{
-		logger.debug("Setting the rules");
-		if (rulesIn == null)
-		{
-			logger.error("Attempt to set the rules to null");
-			throw new IllegalArgumentException("The rules must be provided");
-		}
-		logger.trace("New rules are: " + rulesIn.toString());
-		this.rules = rulesIn;
-	}	
+     * {@inheritDoc}
+     */
+    @Override
+    public Safelist getRules()
+    {
+        logger.debug("Returning a copy of the current rules");
+        return new Safelist(rules);
+    }
 
     /**
      * {@inheritDoc}
@@ -85,12 +121,39 @@ public class XssSanitizerImpl
             throw new IllegalArgumentException("Input required");
         }
 
-        logger.trace("Pre sanitized string: " + sanitizeOutput(input));
+        if (isPlainText(input))
+        {
+            return input.trim();
+        }
         String results = Jsoup.clean(input, rules);
-        logger.trace("Post sanitized string: " + results);
+        logger.trace("Post sanitized string: {}", results);
         return results.trim();
     }
 
+    /**
+     * Checks whether cleaning would leave the input unchanged apart from trimming:
+     * it holds no markup, entity or control characters, no non-breaking spaces or
+     * surrogates, and no runs of spaces, which Jsoup collapses.
+     * 
+     * @param input string that we are scanning
+     * @return true if the input is plain text
+     */
+    static boolean isPlainText(final String input)
+    {
+        char previous = 0;
+        for (int i = 0; i < input.length(); i++)
+        {
+            char c = input.charAt(i);
+            boolean plain = c < 0x80 ? PLAIN_ASCII[c] : c != '\u00a0' && !Character.isSurrogate(c);
+            if (!plain || (c == ' ' && previous == ' '))
+            {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
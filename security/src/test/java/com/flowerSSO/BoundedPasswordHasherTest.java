@@ -0,0 +1,101 @@
+package com.flowerSSO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class BoundedPasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private BoundedPasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hasher != null) {
+            hasher.close();
+        }
+    }
+
+    @Test
+    void hashAndVerifyRunOnTheDelegate() {
+        hasher = new BoundedPasswordHasher(new PasswordHasherImpl(), 1, 4);
+
+        String hashed = hasher.hash("correct horse battery");
+
+        assertTrue(hasher.verify("correct horse battery", hashed));
+        assertEquals(2, hasher.getCompletedCount());
+        assertTrue(hasher.getMeanHashNanos() > 0);
+    }
+
+    @Test
+    void delegateExceptionsReachTheCaller() {
+        hasher = new BoundedPasswordHasher(new PasswordHasherImpl(), 1, 4);
+
+        assertThrows(IllegalArgumentException.class, () -> hasher.hash(""));
+    }
+
+    @Test
+    void fullQueueIsRejectedAtOnce() throws Exception {
+        hasher = new BoundedPasswordHasher(new BlockingHasher(), 1, 1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.hash("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.hash("second"));
+        while (hasher.getQueueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        PasswordHasherSaturatedException e = assertThrows(PasswordHasherSaturatedException.class,
+                () -> hasher.hash("third"));
+
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1, hasher.getRejectedCount());
+        release.countDown();
+        assertEquals("hashed first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, hasher.getCompletedCount());
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedPasswordHasher(null, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedPasswordHasher(new PasswordHasherImpl(), -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedPasswordHasher(new PasswordHasherImpl(), 1, -1));
+    }
+
+    /**
+     * Hasher that holds every call until the test releases it.
+     */
+    private final class BlockingHasher implements PasswordHasher {
+
+        @Override
+        public String hash(String plaintext) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed " + plaintext;
+        }
+
+        @Override
+        public boolean verify(String plaintext, String hashed) {
+            return hashed.equals(hash(plaintext));
+        }
+
+        @Override
+        public boolean needsRehash(String hashed) {
+            return false;
+        }
+    }
+}
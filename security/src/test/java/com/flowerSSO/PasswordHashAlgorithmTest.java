@@ -0,0 +1,91 @@
+package com.flowerSSO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class PasswordHashAlgorithmTest {
+
+    // Cheap parameters keep the tests fast; the encoding is the same at any cost
+    private final PasswordHashAlgorithm bcrypt = new BCryptPasswordHashAlgorithm(4);
+    private final PasswordHashAlgorithm argon2id = new Argon2idPasswordHashAlgorithm(64, 1, 1);
+    private final PasswordHashAlgorithm scrypt = new ScryptPasswordHashAlgorithm(4, 8, 1);
+
+    @Test
+    void testEachAlgorithmVerifiesItsOwnHash() {
+        for (PasswordHashAlgorithm algorithm : new PasswordHashAlgorithm[] {bcrypt, argon2id, scrypt}) {
+            String hashed = algorithm.hash("correctPassword");
+            assertTrue(algorithm.isFormatOf(hashed), algorithm.describe());
+            assertTrue(algorithm.verify("correctPassword", hashed), algorithm.describe());
+            assertFalse(algorithm.verify("wrongPassword", hashed), algorithm.describe());
+        }
+    }
+
+    @Test
+    void testPhcEncoding() {
+        assertTrue(argon2id.hash("password").matches("\\$argon2id\\$v=19\\$m=64,t=1,p=1\\$[A-Za-z0-9+/]{22}\\$[A-Za-z0-9+/]{43}"));
+        assertTrue(scrypt.hash("password").matches("\\$scrypt\\$ln=4,r=8,p=1\\$[A-Za-z0-9+/]{22}\\$[A-Za-z0-9+/]{43}"));
+    }
+
+    @Test
+    void testKnownScryptVector() {
+        // RFC 7914 section 12: P="password", S="NaCl", N=1024, r=8, p=16, dkLen=64
+        String reference = "$scrypt$ln=10,r=8,p=16$TmFDbA$/bq+HJ00cgB4VucZDQHp/nxq18vII3gw53N2Y0s3MWIurzDZLiKjiG/xCSedmDDaxyevuUqD7m2DYMvfoswGQA";
+        assertTrue(scrypt.verify("password", reference));
+        assertFalse(scrypt.verify("Password", reference));
+    }
+
+    @Test
+    void testVerifyUsesCostStoredInHash() {
+        String hashed = new Argon2idPasswordHashAlgorithm(128, 2, 2).hash("password");
+        assertTrue(argon2id.verify("password", hashed));
+        hashed = new ScryptPasswordHashAlgorithm(5, 4, 2).hash("password");
+        assertTrue(scrypt.verify("password", hashed));
+    }
+
+    @Test
+    void testNeedsRehashWhenAlgorithmOrCostChanges() {
+        PasswordHasher hasher = new PasswordHasherImpl(argon2id);
+        assertFalse(hasher.needsRehash(hasher.hash("password")));
+        assertTrue(hasher.needsRehash(new Argon2idPasswordHashAlgorithm(64, 2, 1).hash("password")));
+        assertTrue(hasher.needsRehash(new Argon2idPasswordHashAlgorithm(128, 1, 1).hash("password")));
+        assertTrue(hasher.needsRehash(bcrypt.hash("password")));
+        assertTrue(hasher.needsRehash(scrypt.hash("password")));
+        assertTrue(hasher.needsRehash("not-a-valid-hash"));
+
+        assertFalse(bcrypt.needsRehash(bcrypt.hash("password")));
+        assertTrue(bcrypt.needsRehash(new BCryptPasswordHashAlgorithm(5).hash("password")));
+        assertFalse(scrypt.needsRehash(scrypt.hash("password")));
+        assertTrue(scrypt.needsRehash(new ScryptPasswordHashAlgorithm(5, 8, 1).hash("password")));
+        assertThrows(IllegalArgumentException.class, () -> hasher.needsRehash(""));
+    }
+
+    @Test
+    void testHasherVerifiesEveryAlgorithmByPrefix() {
+        PasswordHasher hasher = new PasswordHasherImpl(argon2id);
+        assertTrue(hasher.hash("password").startsWith("$argon2id$"));
+        assertTrue(hasher.verify("password", bcrypt.hash("password")));
+        assertTrue(hasher.verify("password", scrypt.hash("password")));
+        assertFalse(hasher.verify("password", "$pbkdf2$i=1000$abc$def"));
+    }
+
+    @Test
+    void testMalformedHashesAreRejected() {
+        PasswordHasher hasher = new PasswordHasherImpl(argon2id);
+        String hashed = argon2id.hash("password");
+        assertFalse(hasher.verify("password", hashed.replace("v=19", "v=16")));
+        assertFalse(hasher.verify("password", hashed.replace("m=64", "m=99999999")));
+        assertFalse(hasher.verify("password", hashed.substring(0, hashed.lastIndexOf('$'))));
+        assertFalse(hasher.verify("password", "$scrypt$ln=22,r=32,p=1$c2FsdA$aGFzaA"));
+        assertFalse(hasher.verify("password", "$2a$04$short"));
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BCryptPasswordHashAlgorithm(3));
+        assertThrows(IllegalArgumentException.class, () -> new Argon2idPasswordHashAlgorithm(64, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Argon2idPasswordHashAlgorithm(8, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ScryptPasswordHashAlgorithm(21, 32, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasherImpl(null));
+    }
+}
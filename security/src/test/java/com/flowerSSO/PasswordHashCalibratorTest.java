@@ -0,0 +1,81 @@
+package com.flowerSSO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class PasswordHashCalibratorTest {
+
+    /**
+     * Takes cost * 20 ms per hash.
+     */
+    private static class SleepingAlgorithm implements PasswordHashAlgorithm {
+        private final int cost;
+
+        SleepingAlgorithm(int cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public boolean isFormatOf(String hashed) {
+            return true;
+        }
+
+        @Override
+        public String hash(String plaintext) {
+            try {
+                Thread.sleep(cost * 20L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "$sleep$" + cost;
+        }
+
+        @Override
+        public boolean verify(String plaintext, String hashed) {
+            return true;
+        }
+
+        @Override
+        public boolean needsRehash(String hashed) {
+            return !hashed.equals("$sleep$" + cost);
+        }
+
+        @Override
+        public String describe() {
+            return "sleep(" + cost + ")";
+        }
+    }
+
+    @Test
+    void testPicksHighestCostWithinTarget() {
+        PasswordHashAlgorithm chosen = PasswordHashCalibrator.calibrate(SleepingAlgorithm::new, 1, 10, Duration.ofMillis(90));
+        assertEquals("sleep(4)", chosen.describe());
+    }
+
+    @Test
+    void testStopsAtCeiling() {
+        PasswordHashAlgorithm chosen = PasswordHashCalibrator.calibrate(SleepingAlgorithm::new, 1, 3, Duration.ofSeconds(5));
+        assertEquals("sleep(3)", chosen.describe());
+    }
+
+    @Test
+    void testNeverGoesBelowFloor() {
+        PasswordHashAlgorithm chosen = PasswordHashCalibrator.calibrate(SleepingAlgorithm::new, 3, 10, Duration.ofMillis(1));
+        assertEquals("sleep(3)", chosen.describe());
+    }
+
+    @Test
+    void testCalibratedBCryptRespectsFloor() {
+        BCryptPasswordHashAlgorithm bcrypt = PasswordHashCalibrator.calibrateBCrypt(Duration.ofMillis(1));
+        assertEquals(PasswordHashCalibrator.BCRYPT_MIN_ROUNDS, bcrypt.getRounds());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordHashCalibrator.calibrate(SleepingAlgorithm::new, 1, 2, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> PasswordHashCalibrator.calibrate(SleepingAlgorithm::new, 3, 2, Duration.ofMillis(10)));
+    }
+}
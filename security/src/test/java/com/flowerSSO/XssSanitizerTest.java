@@ -1,9 +1,15 @@
 package com.flowerSSO;
 
+import java.util.Random;
+
+import org.jsoup.Jsoup;
 import org.jsoup.safety.Safelist;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -52,13 +58,13 @@ public class XssSanitizerTest {
 	public void testNullRules()
 	{
 		assertThrows(IllegalArgumentException.class, () ->
-			testXssSanitizer.setRules(null));
+			new XssSanitizerImpl(null));
 	}
 		
 	@Test
 	public void testAlternateRules()
 	{
-		testXssSanitizer.setRules(Safelist.relaxed());
+		testXssSanitizer = new XssSanitizerImpl(Safelist.relaxed());
 		String data = "Some data <b>more</b> data";
 		String expected = "Some data <b>more</b> data";
 		String actual = testXssSanitizer.sanitizeInput(data);
@@ -117,4 +123,65 @@ public class XssSanitizerTest {
 		String actual = testXssSanitizer.sanitizeOutput(data);
 		assertEquals(expected, actual);
 	}
+
+	@Test
+	public void testRulesCannotBeChangedAfterConstruction()
+	{
+		Safelist rules = Safelist.none();
+		testXssSanitizer = new XssSanitizerImpl(rules);
+		rules.addTags("b");
+		testXssSanitizer.getRules().addTags("i");
+		assertEquals("bold italic", testXssSanitizer.sanitizeInput("<b>bold</b> <i>italic</i>"));
+	}
+
+	@Test
+	public void testSharedInstance()
+	{
+		assertSame(XssSanitizerImpl.getInstance(), XssSanitizerImpl.getInstance());
+		assertEquals("Some data more data",
+			XssSanitizerImpl.getInstance().sanitizeInput("Some data <script>alert()</script> more data"));
+	}
+
+	@Test
+	public void testPlainTextSkipsJsoup()
+	{
+		assertTrue(XssSanitizerImpl.isPlainText("jane.doe+sso@example.com"));
+		assertTrue(XssSanitizerImpl.isPlainText("Zoë Ångström-O\u2019Neil"));
+		assertFalse(XssSanitizerImpl.isPlainText("a < b"));
+		assertFalse(XssSanitizerImpl.isPlainText("Tom & Jerry"));
+		assertFalse(XssSanitizerImpl.isPlainText("two  spaces"));
+		assertFalse(XssSanitizerImpl.isPlainText("tab\tseparated"));
+		assertFalse(XssSanitizerImpl.isPlainText("non\u00a0breaking"));
+	}
+
+	@Test
+	public void testEveryCharacterMatchesJsoup()
+	{
+		for (char c = 0; c < Character.MAX_VALUE; c++)
+		{
+			String input = "a" + c + "b";
+			assertEquals(Jsoup.clean(input, Safelist.none()).trim(), testXssSanitizer.sanitizeInput(input),
+				"Mismatch for U+" + Integer.toHexString(c));
+		}
+	}
+
+	@Test
+	public void testRandomInputMatchesJsoup()
+	{
+		String[] alphabet = {"a", "Z", "7", " ", "  ", "-", ".", "@", "'", "\"", "<", ">", "&", "&amp;",
+			"<b>", "</b>", "<script>", "\t", "\n", "\u00a0", "\u00e9", "\u4e2d", "\ud83d\ude00", "\ud800"};
+		Random random = new Random(17);
+		for (int i = 0; i < 20000; i++)
+		{
+			StringBuilder input = new StringBuilder();
+			int length = random.nextInt(12);
+			for (int j = 0; j < length; j++)
+			{
+				input.append(alphabet[random.nextInt(alphabet.length)]);
+			}
+			String value = input.toString();
+			assertEquals(Jsoup.clean(value, Safelist.none()).trim(), testXssSanitizer.sanitizeInput(value),
+				"Mismatch for \"" + value + "\"");
+		}
+	}
 }